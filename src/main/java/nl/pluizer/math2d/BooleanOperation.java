@@ -0,0 +1,628 @@
+package nl.pluizer.math2d;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.TreeSet;
+
+/**
+ * Sweep line implementation of the boolean operations between two
+ * sets of polygon rings, after the algorithm of Martinez, Rueda and
+ * Feito. All edges are split at their intersections during a single
+ * left to right sweep, every edge fragment is classified against the
+ * other polygon and the fragments that are part of the result are
+ * chained back into rings.
+ *
+ * Holes come out as separate rings. Outer rings are counter-clockwise
+ * and holes are clockwise, so the result can be filled with either the
+ * even-odd or the non-zero rule.
+ *
+ * @author Richard van Roy
+ */
+final class BooleanOperation {
+
+    static final int INTERSECTION = 0;
+    static final int UNION = 1;
+    static final int DIFFERENCE = 2;
+    static final int XOR = 3;
+
+    // Fraction along a segment within which intersections are snapped
+    // to its endpoints.
+    private static final double SNAP = 1e-10;
+
+    private static final int NORMAL = 0;
+    private static final int NON_CONTRIBUTING = 1;
+    private static final int SAME_TRANSITION = 2;
+    private static final int DIFFERENT_TRANSITION = 3;
+
+    private static final class SweepEvent {
+        final double x, y;
+        final boolean subject;
+        final int id;
+        boolean left;
+        SweepEvent other;
+        int contourId;
+        int type = NORMAL;
+        boolean inOut, otherInOut, inResult;
+        int vertex;
+
+        SweepEvent(double x, double y, boolean left, SweepEvent other, boolean subject, int id) {
+            this.x = x;
+            this.y = y;
+            this.left = left;
+            this.other = other;
+            this.subject = subject;
+            this.id = id;
+        }
+    }
+
+    private final PriorityQueue<SweepEvent> queue =
+            new PriorityQueue<>(64, BooleanOperation::compareEvents);
+    private final TreeSet<SweepEvent> sweepLine =
+            new TreeSet<>(BooleanOperation::compareSegments);
+    private final List<SweepEvent> sortedEvents = new ArrayList<>();
+    private final List<SweepEvent> endpoints = new ArrayList<>();
+
+    private int nextId, nextContour;
+
+    // Result of the last call to intersect().
+    private double ix0, iy0, ix1, iy1;
+
+    /**
+     * Runs a boolean operation and writes the resulting rings into
+     * the buffers of out, reusing the buffers that are already in the
+     * list.
+     * @return              the number of rings written
+     */
+    int compute(List<VectorBuffer> subject, List<VectorBuffer> clipping,
+                int operation, List<VectorBuffer> out) {
+        double[] subjectBounds = bounds(subject);
+        double[] clippingBounds = bounds(clipping);
+        // Without overlapping bounds nothing intersects. The other
+        // operations still sweep, so every result is oriented the same.
+        if (operation == INTERSECTION && (subjectBounds[0] > clippingBounds[2] ||
+                clippingBounds[0] > subjectBounds[2] ||
+                subjectBounds[1] > clippingBounds[3] ||
+                clippingBounds[1] > subjectBounds[3])) {
+            return finish(out, 0);
+        }
+        long start = Metrics.start();
+        try {
+            for (VectorBuffer ring : subject) {
+                addRing(ring, true);
+            }
+            for (VectorBuffer ring : clipping) {
+                addRing(ring, false);
+            }
+            sweep(operation, subjectBounds[2], Math.min(subjectBounds[2], clippingBounds[2]));
+            return finish(out, connectEdges(out, operation));
+        } finally {
+            Metrics.record(Metrics.Operation.BOOLEAN_OPERATION, nextId / 2, start);
+            queue.clear();
+            sweepLine.clear();
+            sortedEvents.clear();
+            endpoints.clear();
+            nextId = 0;
+            nextContour = 0;
+        }
+    }
+
+    private static double[] bounds(List<VectorBuffer> rings) {
+        double minX = Double.POSITIVE_INFINITY, minY = Double.POSITIVE_INFINITY;
+        double maxX = Double.NEGATIVE_INFINITY, maxY = Double.NEGATIVE_INFINITY;
+        for (VectorBuffer ring : rings) {
+            if (ring.size() < 3) {
+                continue;
+            }
+            double[] c = ring.getCoordinates();
+            for (int i = 0, n = ring.size() * 2; i < n; i += 2) {
+                minX = Math.min(minX, c[i]);
+                maxX = Math.max(maxX, c[i]);
+                minY = Math.min(minY, c[i + 1]);
+                maxY = Math.max(maxY, c[i + 1]);
+            }
+        }
+        return new double[] {minX, minY, maxX, maxY};
+    }
+
+    private static VectorBuffer target(List<VectorBuffer> out, int index) {
+        if (index < out.size()) {
+            VectorBuffer buffer = out.get(index);
+            buffer.clear();
+            return buffer;
+        }
+        VectorBuffer buffer = new VectorBuffer();
+        out.add(buffer);
+        return buffer;
+    }
+
+    private static int finish(List<VectorBuffer> out, int count) {
+        for (int i = count; i < out.size(); i++) {
+            out.get(i).clear();
+        }
+        return count;
+    }
+
+    private void addRing(VectorBuffer ring, boolean subject) {
+        int n = ring.size();
+        if (n < 3) {
+            return;
+        }
+        int contour = nextContour++;
+        for (int i = 0; i < n; i++) {
+            int j = i + 1 == n ? 0 : i + 1;
+            double x1 = ring.getX(i), y1 = ring.getY(i);
+            double x2 = ring.getX(j), y2 = ring.getY(j);
+            if (x1 == x2 && y1 == y2) {
+                continue;
+            }
+            SweepEvent e1 = new SweepEvent(x1, y1, false, null, subject, nextId++);
+            SweepEvent e2 = new SweepEvent(x2, y2, false, e1, subject, nextId++);
+            e1.other = e2;
+            e1.contourId = e2.contourId = contour;
+            if (compareEvents(e1, e2) > 0) {
+                e2.left = true;
+            } else {
+                e1.left = true;
+            }
+            queue.add(e1);
+            queue.add(e2);
+        }
+    }
+
+    private void sweep(int operation, double subjectMaxX, double rightBound) {
+        while (!queue.isEmpty()) {
+            SweepEvent event = queue.poll();
+            sortedEvents.add(event);
+            // Nothing to the right of these bounds can be part of the result.
+            if ((operation == INTERSECTION && event.x > rightBound) ||
+                    (operation == DIFFERENCE && event.x > subjectMaxX)) {
+                break;
+            }
+            if (event.left) {
+                sweepLine.add(event);
+                SweepEvent prev = sweepLine.lower(event);
+                SweepEvent next = sweepLine.higher(event);
+                computeFields(event, prev, operation);
+                if (next != null && possibleIntersection(event, next) == 2) {
+                    computeFields(event, prev, operation);
+                    computeFields(next, event, operation);
+                }
+                if (prev != null && possibleIntersection(prev, event) == 2) {
+                    computeFields(prev, sweepLine.lower(prev), operation);
+                    computeFields(event, prev, operation);
+                }
+            } else {
+                SweepEvent left = event.other;
+                if (sweepLine.contains(left)) {
+                    SweepEvent prev = sweepLine.lower(left);
+                    SweepEvent next = sweepLine.higher(left);
+                    sweepLine.remove(left);
+                    if (prev != null && next != null) {
+                        possibleIntersection(prev, next);
+                    }
+                }
+            }
+        }
+    }
+
+    private static void computeFields(SweepEvent event, SweepEvent prev, int operation) {
+        if (prev == null) {
+            event.inOut = false;
+            event.otherInOut = true;
+        } else if (event.subject == prev.subject) {
+            event.inOut = !prev.inOut;
+            event.otherInOut = prev.otherInOut;
+        } else {
+            event.inOut = !prev.otherInOut;
+            event.otherInOut = isVertical(prev) ? !prev.inOut : prev.inOut;
+        }
+        event.inResult = inResult(event, operation);
+    }
+
+    private static boolean inResult(SweepEvent event, int operation) {
+        switch (event.type) {
+            case NORMAL:
+                switch (operation) {
+                    case INTERSECTION:
+                        return !event.otherInOut;
+                    case UNION:
+                        return event.otherInOut;
+                    case DIFFERENCE:
+                        return event.subject == event.otherInOut;
+                    default:
+                        return true;
+                }
+            case SAME_TRANSITION:
+                return operation == INTERSECTION || operation == UNION;
+            case DIFFERENT_TRANSITION:
+                return operation == DIFFERENCE;
+            default:
+                return false;
+        }
+    }
+
+    private int possibleIntersection(SweepEvent se1, SweepEvent se2) {
+        int n = intersect(se1.x, se1.y, se1.other.x, se1.other.y,
+                se2.x, se2.y, se2.other.x, se2.other.y);
+        if (n == 0) {
+            return 0;
+        }
+        // The segments only touch at a shared endpoint.
+        if (n == 1 && (samePoint(se1, se2) || samePoint(se1.other, se2.other))) {
+            return 0;
+        }
+        // Overlapping edges of the same polygon are left alone.
+        if (n == 2 && se1.subject == se2.subject) {
+            return 0;
+        }
+        if (n == 1) {
+            double x = ix0, y = iy0;
+            if (!at(se1, x, y) && !at(se1.other, x, y)) {
+                divideSegment(se1, x, y);
+            }
+            if (!at(se2, x, y) && !at(se2.other, x, y)) {
+                divideSegment(se2, x, y);
+            }
+            return 1;
+        }
+        // The segments overlap, order their endpoints along the sweep.
+        SweepEvent[] events = new SweepEvent[4];
+        int count = 0;
+        boolean leftCoincide = samePoint(se1, se2);
+        boolean rightCoincide = samePoint(se1.other, se2.other);
+        if (!leftCoincide) {
+            if (compareEvents(se1, se2) > 0) {
+                events[count++] = se2;
+                events[count++] = se1;
+            } else {
+                events[count++] = se1;
+                events[count++] = se2;
+            }
+        }
+        if (!rightCoincide) {
+            if (compareEvents(se1.other, se2.other) > 0) {
+                events[count++] = se2.other;
+                events[count++] = se1.other;
+            } else {
+                events[count++] = se1.other;
+                events[count++] = se2.other;
+            }
+        }
+        if (leftCoincide) {
+            // Both segments are equal or share their left endpoint.
+            se2.type = NON_CONTRIBUTING;
+            se1.type = se2.inOut == se1.inOut ? SAME_TRANSITION : DIFFERENT_TRANSITION;
+            if (!rightCoincide) {
+                divideSegment(events[1].other, events[0].x, events[0].y);
+            }
+            return 2;
+        }
+        if (rightCoincide) {
+            divideSegment(events[0], events[1].x, events[1].y);
+            return 3;
+        }
+        if (events[0] != events[3].other) {
+            // Neither segment fully contains the other.
+            divideSegment(events[0], events[1].x, events[1].y);
+            divideSegment(events[1], events[2].x, events[2].y);
+            return 3;
+        }
+        // One segment fully contains the other.
+        divideSegment(events[0], events[1].x, events[1].y);
+        divideSegment(events[3].other, events[2].x, events[2].y);
+        return 3;
+    }
+
+    private void divideSegment(SweepEvent event, double x, double y) {
+        SweepEvent right = new SweepEvent(x, y, false, event, event.subject, nextId++);
+        SweepEvent left = new SweepEvent(x, y, true, event.other, event.subject, nextId++);
+        right.contourId = left.contourId = event.contourId;
+        // Guard against rounding putting the new left event after its
+        // right event.
+        if (compareEvents(left, event.other) > 0) {
+            event.other.left = true;
+            left.left = false;
+        }
+        event.other.other = left;
+        event.other = right;
+        queue.add(left);
+        queue.add(right);
+    }
+
+    /**
+     * Intersects segment a1-a2 with segment b1-b2 and stores the
+     * intersection points in ix0, iy0 (and ix1, iy1 when the segments
+     * overlap).
+     * @return              the number of intersection points, 0, 1 or 2
+     */
+    private int intersect(double a1x, double a1y, double a2x, double a2y,
+                          double b1x, double b1y, double b2x, double b2y) {
+        double vaX = a2x - a1x, vaY = a2y - a1y;
+        double vbX = b2x - b1x, vbY = b2y - b1y;
+        double eX = b1x - a1x, eY = b1y - a1y;
+        double kross = vaX * vbY - vaY * vbX;
+        if (kross != 0) {
+            double s = (eX * vbY - eY * vbX) / kross;
+            if (s < -SNAP || s > 1 + SNAP) {
+                return 0;
+            }
+            double t = (eX * vaY - eY * vaX) / kross;
+            if (t < -SNAP || t > 1 + SNAP) {
+                return 0;
+            }
+            // Snap to an endpoint when we (almost) hit one, otherwise
+            // rounding leaves a tiny sliver next to the endpoint.
+            if (s <= SNAP) {
+                ix0 = a1x;
+                iy0 = a1y;
+            } else if (s >= 1 - SNAP) {
+                ix0 = a2x;
+                iy0 = a2y;
+            } else if (t <= SNAP) {
+                ix0 = b1x;
+                iy0 = b1y;
+            } else if (t >= 1 - SNAP) {
+                ix0 = b2x;
+                iy0 = b2y;
+            } else {
+                ix0 = a1x + s * vaX;
+                iy0 = a1y + s * vaY;
+            }
+            return 1;
+        }
+        // Parallel, check if the segments are on the same line.
+        if (eX * vaY - eY * vaX != 0) {
+            return 0;
+        }
+        double lengthA = vaX * vaX + vaY * vaY;
+        double sa = (vaX * eX + vaY * eY) / lengthA;
+        double sb = sa + (vaX * vbX + vaY * vbY) / lengthA;
+        double sMin = Math.min(sa, sb);
+        double sMax = Math.max(sa, sb);
+        if (sMin > 1 || sMax < 0) {
+            return 0;
+        }
+        if (sMin == 1) {
+            ix0 = a2x;
+            iy0 = a2y;
+            return 1;
+        }
+        if (sMax == 0) {
+            ix0 = a1x;
+            iy0 = a1y;
+            return 1;
+        }
+        // The overlap runs between endpoints of either segment.
+        if (sMin <= 0) {
+            ix0 = a1x;
+            iy0 = a1y;
+        } else if (sa < sb) {
+            ix0 = b1x;
+            iy0 = b1y;
+        } else {
+            ix0 = b2x;
+            iy0 = b2y;
+        }
+        if (sMax >= 1) {
+            ix1 = a2x;
+            iy1 = a2y;
+        } else if (sa < sb) {
+            ix1 = b2x;
+            iy1 = b2y;
+        } else {
+            ix1 = b1x;
+            iy1 = b1y;
+        }
+        return 2;
+    }
+
+    /**
+     * Returns true if the result lies above (to the left of) an edge
+     * that is part of the result.
+     */
+    private static boolean resultAbove(SweepEvent event, int operation) {
+        // inOut is false when the event's own polygon lies above it.
+        boolean ownAbove = !event.inOut;
+        switch (event.type) {
+            case DIFFERENT_TRANSITION:
+                return event.subject == ownAbove;
+            case SAME_TRANSITION:
+                return ownAbove;
+            default:
+                switch (operation) {
+                    case DIFFERENCE:
+                        return event.subject == ownAbove;
+                    case XOR:
+                        return ownAbove == event.otherInOut;
+                    default:
+                        return ownAbove;
+                }
+        }
+    }
+
+    /**
+     * Chains all edges that are part of the result into closed rings.
+     * Every edge is directed with the result on its left, so outer
+     * rings come out counter-clockwise and holes clockwise.
+     */
+    private int connectEdges(List<VectorBuffer> out, int operation) {
+        List<SweepEvent> edges = new ArrayList<>();
+        for (SweepEvent event : sortedEvents) {
+            if (event.left && event.inResult && !samePoint(event, event.other)) {
+                // Store every edge by the event it starts from.
+                edges.add(resultAbove(event, operation) ? event : event.other);
+                endpoints.add(event);
+                endpoints.add(event.other);
+            }
+        }
+        int edgeCount = edges.size();
+        if (edgeCount == 0) {
+            return 0;
+        }
+        // Give every distinct point a vertex number.
+        Collections.sort(endpoints, (e1, e2) -> {
+            if (e1.x != e2.x) {
+                return e1.x < e2.x ? -1 : 1;
+            }
+            return e1.y < e2.y ? -1 : e1.y == e2.y ? 0 : 1;
+        });
+        int vertexCount = 0;
+        SweepEvent last = null;
+        for (SweepEvent e : endpoints) {
+            if (last == null || !samePoint(last, e)) {
+                vertexCount++;
+            }
+            e.vertex = vertexCount - 1;
+            last = e;
+        }
+        // Build the list of edges leaving every vertex.
+        int[] offsets = new int[vertexCount + 1];
+        for (SweepEvent e : edges) {
+            offsets[e.vertex + 1]++;
+        }
+        for (int v = 0; v < vertexCount; v++) {
+            offsets[v + 1] += offsets[v];
+        }
+        int[] cursor = new int[vertexCount];
+        System.arraycopy(offsets, 0, cursor, 0, vertexCount);
+        int[] outgoing = new int[edgeCount];
+        for (int i = 0; i < edgeCount; i++) {
+            outgoing[cursor[edges.get(i).vertex]++] = i;
+        }
+        boolean[] used = new boolean[edgeCount];
+        int count = 0;
+        for (int start = 0; start < edgeCount; start++) {
+            if (used[start]) {
+                continue;
+            }
+            VectorBuffer ring = target(out, count);
+            SweepEvent edge = edges.get(start);
+            used[start] = true;
+            int first = edge.vertex;
+            ring.add(edge.x, edge.y);
+            while (edge.other.vertex != first) {
+                SweepEvent at = edge.other;
+                ring.add(at.x, at.y);
+                // Where rings touch, take the sharpest left turn so the
+                // rings are not merged into one that crosses itself.
+                double inX = at.x - edge.x, inY = at.y - edge.y;
+                int next = -1;
+                double best = Double.NEGATIVE_INFINITY;
+                for (int k = offsets[at.vertex]; k < offsets[at.vertex + 1]; k++) {
+                    int candidate = outgoing[k];
+                    if (used[candidate]) {
+                        continue;
+                    }
+                    SweepEvent c = edges.get(candidate);
+                    double outX = c.other.x - c.x, outY = c.other.y - c.y;
+                    double turn = Math.atan2(inX * outY - inY * outX, inX * outX + inY * outY);
+                    if (next < 0 || turn > best) {
+                        next = candidate;
+                        best = turn;
+                    }
+                }
+                if (next < 0) {
+                    break;
+                }
+                used[next] = true;
+                edge = edges.get(next);
+            }
+            if (ring.size() >= 3) {
+                count++;
+            } else {
+                ring.clear();
+            }
+        }
+        return count;
+    }
+
+    private static boolean samePoint(SweepEvent a, SweepEvent b) {
+        return a.x == b.x && a.y == b.y;
+    }
+
+    private static boolean at(SweepEvent e, double x, double y) {
+        return e.x == x && e.y == y;
+    }
+
+    private static boolean isVertical(SweepEvent e) {
+        return e.x == e.other.x;
+    }
+
+    private static double signedArea(double x0, double y0, double x1, double y1,
+                                     double x2, double y2) {
+        return Predicates.orient(x0, y0, x1, y1, x2, y2);
+    }
+
+    private static boolean isBelow(SweepEvent e, double x, double y) {
+        return e.left
+                ? signedArea(e.x, e.y, e.other.x, e.other.y, x, y) > 0
+                : signedArea(e.other.x, e.other.y, e.x, e.y, x, y) > 0;
+    }
+
+    /**
+     * Order in which the events are processed by the sweep.
+     */
+    private static int compareEvents(SweepEvent e1, SweepEvent e2) {
+        if (e1.x != e2.x) {
+            return e1.x > e2.x ? 1 : -1;
+        }
+        if (e1.y != e2.y) {
+            return e1.y > e2.y ? 1 : -1;
+        }
+        // Same point, process right events first.
+        if (e1.left != e2.left) {
+            return e1.left ? 1 : -1;
+        }
+        // Same point and both left or right, the lower segment first.
+        if (signedArea(e1.x, e1.y, e1.other.x, e1.other.y, e2.other.x, e2.other.y) != 0) {
+            return isBelow(e1, e2.other.x, e2.other.y) ? -1 : 1;
+        }
+        if (e1.subject != e2.subject) {
+            return e1.subject ? -1 : 1;
+        }
+        return Integer.compare(e1.id, e2.id);
+    }
+
+    /**
+     * Order of the segments on the sweep line, from bottom to top.
+     */
+    private static int compareSegments(SweepEvent le1, SweepEvent le2) {
+        if (le1 == le2) {
+            return 0;
+        }
+        if (signedArea(le1.x, le1.y, le1.other.x, le1.other.y, le2.x, le2.y) != 0 ||
+                signedArea(le1.x, le1.y, le1.other.x, le1.other.y, le2.other.x, le2.other.y) != 0) {
+            // The segments are not collinear.
+            if (samePoint(le1, le2)) {
+                return isBelow(le1, le2.other.x, le2.other.y) ? -1 : 1;
+            }
+            if (le1.x == le2.x) {
+                return le1.y < le2.y ? -1 : 1;
+            }
+            // When a segment starts on the other one, its right
+            // endpoint tells on which side it continues.
+            if (compareEvents(le1, le2) > 0) {
+                if (signedArea(le2.x, le2.y, le2.other.x, le2.other.y, le1.x, le1.y) == 0) {
+                    return isBelow(le2, le1.other.x, le1.other.y) ? 1 : -1;
+                }
+                return isBelow(le2, le1.x, le1.y) ? 1 : -1;
+            }
+            if (signedArea(le1.x, le1.y, le1.other.x, le1.other.y, le2.x, le2.y) == 0) {
+                return isBelow(le1, le2.other.x, le2.other.y) ? -1 : 1;
+            }
+            return isBelow(le1, le2.x, le2.y) ? -1 : 1;
+        }
+        if (le1.subject != le2.subject) {
+            return le1.subject ? -1 : 1;
+        }
+        if (samePoint(le1, le2)) {
+            if (le1.contourId != le2.contourId) {
+                return le1.contourId > le2.contourId ? 1 : -1;
+            }
+            return Integer.compare(le1.id, le2.id);
+        }
+        return compareEvents(le1, le2) > 0 ? 1 : -1;
+    }
+}
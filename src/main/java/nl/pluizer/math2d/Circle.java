@@ -1,5 +1,7 @@
 package nl.pluizer.math2d;
 
+import java.util.List;
+
 /**
  * The Circle class is used to define a circle.
  *
@@ -30,6 +32,63 @@ public class Circle implements Shape {
         this(new Vector(), radius);
     }
 
+    /**
+     * Returns the smallest circle that contains all vectors in the
+     * list, in expected linear time.
+     * @param vectors       the list of vectors to contain
+     * @return              a new circle that contains those vectors
+     */
+    public static Circle encapsulateVectors(List<Vector> vectors) {
+        return encapsulateVectors(new VectorBuffer(vectors));
+    }
+
+    /**
+     * Returns the smallest circle that contains all vectors in the
+     * buffer, in expected linear time.
+     * @param vectors       the buffer of vectors to contain
+     * @return              a new circle that contains those vectors
+     */
+    public static Circle encapsulateVectors(VectorBuffer vectors) {
+        return fromArray(EnclosingCircle.minimum(vectors.getCoordinates(), vectors.size()));
+    }
+
+    /**
+     * Returns the smallest circle that contains a polygon. Unlike a
+     * rectangle it stays valid when the polygon is rotated around the
+     * circle's centre.
+     * @param polygon       the polygon to contain
+     * @return              a new circle that contains the polygon
+     */
+    public static Circle encapsulatePolygon(Polygon polygon) {
+        return encapsulateVectors(polygon.getVectors());
+    }
+
+    /**
+     * Returns a circle that contains all vectors in the list, that is
+     * usually a few percent larger than the smallest one but quicker
+     * to compute.
+     * @param vectors       the list of vectors to contain
+     * @return              a new circle that contains those vectors
+     */
+    public static Circle approximateVectors(List<Vector> vectors) {
+        return approximateVectors(new VectorBuffer(vectors));
+    }
+
+    /**
+     * Returns a circle that contains all vectors in the buffer, that is
+     * usually a few percent larger than the smallest one but quicker
+     * to compute.
+     * @param vectors       the buffer of vectors to contain
+     * @return              a new circle that contains those vectors
+     */
+    public static Circle approximateVectors(VectorBuffer vectors) {
+        return fromArray(EnclosingCircle.approximate(vectors.getCoordinates(), vectors.size()));
+    }
+
+    private static Circle fromArray(double[] circle) {
+        return new Circle(new Vector(circle[0], circle[1]), circle[2]);
+    }
+
     /**
      * Returns the centre position of the circle.
      * @return              a new vector, the centre of the circle
@@ -63,4 +122,58 @@ public class Circle implements Shape {
     public double getHeight() {
         return radius*2;
     }
+
+    /**
+     * Returns the area, centroid and moment of inertia of this circle.
+     * @return              the mass properties of this circle
+     */
+    public MassProperties massProperties() {
+        return MassProperties.circle(centre.getX(), centre.getY(), radius);
+    }
+
+    /**
+     * Returns the outline of this circle as a polygon whose edges stay
+     * within a tolerance of the circle.
+     * @param tolerance     the maximum distance to the circle
+     * @return              a new polygon
+     */
+    public Polygon toPolygon(double tolerance) {
+        return Flattening.circle(this, tolerance);
+    }
+
+    /**
+     * Returns a new circle moved by a vector.
+     * @param vector        the vector to add
+     * @return              the new circle
+     */
+    public Circle add(Vector vector) {
+        return new Circle(centre.add(vector), radius);
+    }
+
+    /**
+     * Returns a new circle moved back by a vector.
+     * @param vector        the vector to subtract
+     * @return              the new circle
+     */
+    public Circle subtract(Vector vector) {
+        return new Circle(centre.subtract(vector), radius);
+    }
+
+    /**
+     * Rotates this circle a certain angle around a point of origin
+     * (pivot). Only the centre moves, so an enclosing circle does not
+     * have to be computed again when its shape rotates.
+     * @param angle         the angle to rotate the circle
+     * @param origin        the point of origin
+     * @return              a new rotated circle
+     */
+    public Circle rotate(Angle angle, Vector origin) {
+        double cA = Math.cos(angle.getRadian());
+        double sA = Math.sin(angle.getRadian());
+        double x = centre.getX() - origin.getX();
+        double y = centre.getY() - origin.getY();
+        return new Circle(new Vector(
+                origin.getX() + (x * cA) - (y * sA),
+                origin.getY() + (x * sA) + (y * cA)), radius);
+    }
 }
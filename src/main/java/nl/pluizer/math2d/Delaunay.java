@@ -0,0 +1,829 @@
+package nl.pluizer.math2d;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.stream.IntStream;
+
+/**
+ * The Delaunay class triangulates a set of vectors so that no vector
+ * lies inside the circumcircle of any triangle, and derives the Voronoi
+ * cells of the vectors from it.
+ *
+ * The triangulation is built with a radial sweep: the vectors are
+ * sorted by their distance to a seed triangle and added one by one
+ * outside the convex hull built so far, flipping edges until every
+ * triangle is Delaunay again. A vector that rounding in the sort
+ * puts inside the hull is found by walking the triangles from the
+ * nearby hull, and splits the triangle or edge it lies on. The sort,
+ * which dominates for large inputs, runs on all cores, as does the
+ * extraction of Voronoi cells.
+ * The orientation and in-circle tests use {@link Predicates}, so the
+ * result is valid even for degenerate input.
+ *
+ * Triangles are stored as index buffers. Triangle t has the corners
+ * <code>triangles[3t]</code>, <code>triangles[3t+1]</code> and
+ * <code>triangles[3t+2]</code>, in counter-clockwise order, which are
+ * indices of the input vectors. Half-edge e runs from
+ * <code>triangles[e]</code> to the next corner of its triangle and
+ * <code>halfedges[e]</code> is the opposite half-edge in the adjacent
+ * triangle, or -1 on the convex hull. Vectors that are repeated are
+ * only triangulated once.
+ *
+ * @author Richard van Roy
+ */
+public class Delaunay {
+
+    // Ranges smaller than this are sorted on the current thread.
+    private static final int PARALLEL_THRESHOLD = 1 << 15;
+
+    final private double[] coordinates;
+    final private int size;
+
+    private int[] triangles;
+    private int[] halfedges;
+    private int[] hull;
+
+    // Half-edge ending in every vector, a hull edge for hull vectors.
+    private int[] inedges;
+
+    // Position of every vector in the hull, or -1.
+    private int[] hullIndex;
+
+    // State of the sweep, only used while building.
+    private int[] hullPrev, hullNext, hullTri, hullHash;
+    private int hullStart, hashSize, trianglesLength;
+    private double centreX, centreY;
+    private int[] edgeStack = new int[512];
+
+    /**
+     * Triangulates packed x, y pairs.
+     * @param coordinates   the packed x, y pairs, not modified
+     * @param count         the number of vectors
+     */
+    public Delaunay(double[] coordinates, int count) {
+        long start = Metrics.start();
+        this.coordinates = Arrays.copyOf(coordinates, count * 2);
+        this.size = count;
+        triangulate();
+        link();
+        Metrics.record(Metrics.Operation.DELAUNAY, count, start);
+    }
+
+    /**
+     * Triangulates a buffer of vectors.
+     * @param vectors       the vectors
+     */
+    public Delaunay(VectorBuffer vectors) {
+        this(vectors.getCoordinates(), vectors.size());
+    }
+
+    /**
+     * Triangulates a list of vectors.
+     * @param vectors       the vectors
+     */
+    public Delaunay(List<Vector> vectors) {
+        this(new VectorBuffer(vectors));
+    }
+
+    /**
+     * @return              the number of input vectors
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return              the number of triangles
+     */
+    public int triangleCount() {
+        return triangles.length / 3;
+    }
+
+    /**
+     * Returns the corners of all triangles, three per triangle in
+     * counter-clockwise order. The array is not copied and must not be
+     * modified.
+     * @return              the triangle index buffer
+     */
+    public int[] getTriangles() {
+        return triangles;
+    }
+
+    /**
+     * Returns the adjacency of the triangles, for every half-edge the
+     * opposite half-edge or -1. The array is not copied and must not
+     * be modified.
+     * @return              the opposite half-edges
+     */
+    public int[] getHalfedges() {
+        return halfedges;
+    }
+
+    /**
+     * Returns the indices of the vectors on the convex hull, in
+     * counter-clockwise order. The array is not copied and must not be
+     * modified.
+     * @return              the hull vectors
+     */
+    public int[] getHull() {
+        return hull;
+    }
+
+    /**
+     * Writes the Voronoi cell of a vector, the area closer to it than
+     * to any other vector, clipped to a rectangle. Of a vector that is
+     * repeated only one occurrence gets the cell, the others are empty.
+     * @param index         the index of the vector
+     * @param bounds        the rectangle to clip the cell to
+     * @param out           the buffer the counter-clockwise cell is
+     *                      written to
+     */
+    public void cell(int index, Rectangle bounds, VectorBuffer out) {
+        cell(index, bounds, out, new VectorBuffer(16));
+    }
+
+    /**
+     * Returns the Voronoi cells of all vectors, clipped to a rectangle.
+     * The cells are computed in parallel.
+     * @param bounds        the rectangle to clip the cells to
+     * @return              a new list with the cell of every input
+     *                      vector at its index
+     */
+    public List<Polygon> voronoi(Rectangle bounds) {
+        Polygon[] cells = new Polygon[size];
+        ThreadLocal<VectorBuffer[]> local = ThreadLocal.withInitial(
+                () -> new VectorBuffer[] {new VectorBuffer(16), new VectorBuffer(16)});
+        IntStream range = IntStream.range(0, size);
+        (size >= PARALLEL_THRESHOLD / 8 ? range.parallel() : range).forEach(i -> {
+            VectorBuffer[] buffers = local.get();
+            cell(i, bounds, buffers[0], buffers[1]);
+            cells[i] = buffers[0].toPolygon();
+        });
+        return new ArrayList<>(Arrays.asList(cells));
+    }
+
+    /**
+     * Clips the bounds by the half-plane closer to the vector than to
+     * each of its Delaunay neighbours, which are exactly the vectors
+     * whose bisectors bound the cell.
+     */
+    private void cell(int index, Rectangle bounds, VectorBuffer out, VectorBuffer scratch) {
+        out.clear();
+        int e0 = inedges[index];
+        if (e0 == -1 && (triangles.length > 0 || hullIndex[index] == -1)) {
+            return;
+        }
+        VectorBuffer in = scratch;
+        in.clear();
+        double minX = Math.min(bounds.getLeft(), bounds.getRight());
+        double maxX = Math.max(bounds.getLeft(), bounds.getRight());
+        double minY = Math.min(bounds.getBottom(), bounds.getTop());
+        double maxY = Math.max(bounds.getBottom(), bounds.getTop());
+        in.add(minX, minY);
+        in.add(maxX, minY);
+        in.add(maxX, maxY);
+        in.add(minX, maxY);
+        if (e0 == -1) {
+            // Collinear input, the neighbours are along the line.
+            int i = hullIndex[index];
+            if (i > 0) {
+                in = clipBisector(index, hull[i - 1], in, in == scratch ? out : scratch);
+            }
+            if (i + 1 < hull.length) {
+                in = clipBisector(index, hull[i + 1], in, in == scratch ? out : scratch);
+            }
+        } else {
+            int e = e0;
+            do {
+                in = clipBisector(index, triangles[e], in, in == scratch ? out : scratch);
+                e = next(e);
+                int opposite = halfedges[e];
+                if (opposite == -1) {
+                    // Reached the hull, the last neighbour ends this edge.
+                    in = clipBisector(index, triangles[next(e)], in, in == scratch ? out : scratch);
+                    break;
+                }
+                e = opposite;
+            } while (e != e0 && !in.isEmpty());
+        }
+        if (in != out) {
+            out.clear();
+            out.addAll(in);
+        }
+    }
+
+    private VectorBuffer clipBisector(int i, int j, VectorBuffer in, VectorBuffer out) {
+        double iX = coordinates[i * 2], iY = coordinates[i * 2 + 1];
+        double jX = coordinates[j * 2], jY = coordinates[j * 2 + 1];
+        double nX = iX - jX, nY = iY - jY;
+        double d = -(nX * (iX + jX) + nY * (iY + jY)) * 0.5d;
+        PolygonClipper.clipPlane(in, out, nX, nY, d);
+        return out;
+    }
+
+    private static int next(int e) {
+        return e % 3 == 2 ? e - 2 : e + 1;
+    }
+
+    private static int prev(int e) {
+        return e % 3 == 0 ? e + 2 : e - 1;
+    }
+
+    private void triangulate() {
+        int n = size;
+        double[] c = coordinates;
+        int maxTriangles = Math.max(2 * n - 5, 0);
+        triangles = new int[maxTriangles * 3];
+        halfedges = new int[maxTriangles * 3];
+        if (n == 0) {
+            hull = new int[0];
+            return;
+        }
+        double minX = Double.POSITIVE_INFINITY, minY = Double.POSITIVE_INFINITY;
+        double maxX = Double.NEGATIVE_INFINITY, maxY = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < n; i++) {
+            minX = Math.min(minX, c[i * 2]);
+            minY = Math.min(minY, c[i * 2 + 1]);
+            maxX = Math.max(maxX, c[i * 2]);
+            maxY = Math.max(maxY, c[i * 2 + 1]);
+        }
+        double cX = (minX + maxX) * 0.5d, cY = (minY + maxY) * 0.5d;
+
+        // Seed triangle: the vector nearest to the centre, the vector
+        // nearest to that one, and the vector making the smallest
+        // circumcircle with both.
+        int i0 = 0, i1 = -1, i2 = -1;
+        double best = Double.POSITIVE_INFINITY;
+        for (int i = 0; i < n; i++) {
+            double d = distanceSquared(cX, cY, c[i * 2], c[i * 2 + 1]);
+            if (d < best) {
+                i0 = i;
+                best = d;
+            }
+        }
+        double i0X = c[i0 * 2], i0Y = c[i0 * 2 + 1];
+        best = Double.POSITIVE_INFINITY;
+        for (int i = 0; i < n; i++) {
+            double d = distanceSquared(i0X, i0Y, c[i * 2], c[i * 2 + 1]);
+            if (d < best && d > 0) {
+                i1 = i;
+                best = d;
+            }
+        }
+        double minRadius = Double.POSITIVE_INFINITY;
+        if (i1 != -1) {
+            double i1X = c[i1 * 2], i1Y = c[i1 * 2 + 1];
+            for (int i = 0; i < n; i++) {
+                // Only vectors truly off the line of the first two.
+                if (i == i0 || i == i1 ||
+                        Predicates.orient(i0X, i0Y, i1X, i1Y, c[i * 2], c[i * 2 + 1]) == 0) {
+                    continue;
+                }
+                double r = circumradius(i0X, i0Y, i1X, i1Y, c[i * 2], c[i * 2 + 1]);
+                if (r < minRadius || i2 == -1) {
+                    i2 = i;
+                    minRadius = r;
+                }
+            }
+        }
+        if (i2 == -1) {
+            collinear();
+            return;
+        }
+        if (Predicates.orient(i0X, i0Y, c[i1 * 2], c[i1 * 2 + 1], c[i2 * 2], c[i2 * 2 + 1]) < 0) {
+            int swap = i1;
+            i1 = i2;
+            i2 = swap;
+        }
+        double i1X = c[i1 * 2], i1Y = c[i1 * 2 + 1];
+        double i2X = c[i2 * 2], i2Y = c[i2 * 2 + 1];
+        circumcentre(i0X, i0Y, i1X, i1Y, i2X, i2Y);
+        double diagonal = distanceSquared(minX, minY, maxX, maxY);
+        if (!(minRadius <= diagonal)) {
+            // A nearly flat seed, whose circumcentre is so far away
+            // that the distances to it are mostly rounding. From the
+            // centroid the vectors still go outward along the line.
+            centreX = (i0X + i1X + i2X) / 3;
+            centreY = (i0Y + i1Y + i2Y) / 3;
+        }
+
+        // Sort the vectors by distance from the seed's circumcentre.
+        int[] ids = new int[n];
+        double[] distances = new double[n];
+        for (int i = 0; i < n; i++) {
+            ids[i] = i;
+            distances[i] = distanceSquared(c[i * 2], c[i * 2 + 1], centreX, centreY);
+        }
+        sort(ids, distances);
+
+        hashSize = Math.max(1, (int) Math.ceil(Math.sqrt(n)));
+        hullPrev = new int[n];
+        hullNext = new int[n];
+        hullTri = new int[n];
+        hullHash = new int[hashSize];
+        Arrays.fill(hullHash, -1);
+
+        // The seed triangle is the first hull, counter-clockwise.
+        hullStart = i0;
+        hullNext[i0] = hullPrev[i2] = i1;
+        hullNext[i1] = hullPrev[i0] = i2;
+        hullNext[i2] = hullPrev[i1] = i0;
+        hullTri[i0] = 0;
+        hullTri[i1] = 1;
+        hullTri[i2] = 2;
+        hullHash[hashKey(i0X, i0Y)] = i0;
+        hullHash[hashKey(i1X, i1Y)] = i1;
+        hullHash[hashKey(i2X, i2Y)] = i2;
+        trianglesLength = 0;
+        addTriangle(i0, i1, i2, -1, -1, -1);
+        int hullSize = 3;
+
+        double previousX = 0, previousY = 0;
+        for (int k = 0; k < n; k++) {
+            int i = ids[k];
+            double x = c[i * 2], y = c[i * 2 + 1];
+            // Skip repeated vectors and the seed.
+            if (k > 0 && x == previousX && y == previousY) {
+                continue;
+            }
+            previousX = x;
+            previousY = y;
+            if (i == i0 || i == i1 || i == i2) {
+                continue;
+            }
+
+            // Find a hull edge the vector can see, starting from the
+            // hull vector at about the same angle.
+            int start = 0;
+            for (int j = 0, key = hashKey(x, y); j < hashSize; j++) {
+                start = hullHash[(key + j) % hashSize];
+                if (start != -1 && start != hullNext[start]) {
+                    break;
+                }
+            }
+            start = hullPrev[start];
+            int e = start, q;
+            while (!visible(x, y, e, q = hullNext[e])) {
+                e = q;
+                if (e == start) {
+                    e = -1;
+                    break;
+                }
+            }
+            if (e == -1) {
+                // Not outside the hull, as rounding in the order of the
+                // vectors can put some after ones further out.
+                hullSize += insert(i, hullTri[start]);
+                continue;
+            }
+
+            // Add the first triangle and flip until it is Delaunay.
+            int t = addTriangle(e, i, hullNext[e], -1, -1, hullTri[e]);
+            hullTri[i] = legalize(t + 2);
+            hullTri[e] = t;
+            hullSize++;
+
+            // Walk forward along the hull, adding triangles.
+            int m = hullNext[e];
+            while (visible(x, y, m, q = hullNext[m])) {
+                t = addTriangle(m, i, q, hullTri[i], -1, hullTri[m]);
+                hullTri[i] = legalize(t + 2);
+                hullNext[m] = m;
+                hullSize--;
+                m = q;
+            }
+            // And backward, if the first edge was the start.
+            if (e == start) {
+                while (visible(x, y, q = hullPrev[e], e)) {
+                    t = addTriangle(q, i, e, -1, hullTri[e], hullTri[q]);
+                    legalize(t + 2);
+                    hullTri[q] = t;
+                    hullNext[e] = e;
+                    hullSize--;
+                    e = q;
+                }
+            }
+
+            hullStart = hullPrev[i] = e;
+            hullNext[e] = hullPrev[m] = i;
+            hullNext[i] = m;
+            hullHash[hashKey(x, y)] = i;
+            hullHash[hashKey(c[e * 2], c[e * 2 + 1])] = e;
+        }
+
+        hull = new int[hullSize];
+        for (int i = 0, e = hullStart; i < hullSize; i++, e = hullNext[e]) {
+            hull[i] = e;
+        }
+        triangles = Arrays.copyOf(triangles, trianglesLength);
+        halfedges = Arrays.copyOf(halfedges, trianglesLength);
+        hullPrev = hullNext = hullTri = hullHash = null;
+        edgeStack = null;
+    }
+
+    /**
+     * All vectors on one line: no triangles, the hull is the sorted
+     * line without repeats.
+     */
+    private void collinear() {
+        double[] c = coordinates;
+        int[] ids = new int[size];
+        double[] distances = new double[size];
+        double x0 = c[0], y0 = c[1];
+        for (int i = 0; i < size; i++) {
+            ids[i] = i;
+            double d = c[i * 2] - x0;
+            distances[i] = d != 0 ? d : c[i * 2 + 1] - y0;
+        }
+        sort(ids, distances);
+        int[] line = new int[size];
+        int j = 0;
+        double last = Double.NEGATIVE_INFINITY;
+        for (int id : ids) {
+            if (distances[id] > last) {
+                line[j++] = id;
+                last = distances[id];
+            }
+        }
+        hull = Arrays.copyOf(line, j);
+        triangles = new int[0];
+        halfedges = new int[0];
+    }
+
+    /**
+     * True if the vector x, y lies strictly right of the hull edge
+     * from a to b, so the edge faces it.
+     */
+    private boolean visible(double x, double y, int a, int b) {
+        double[] c = coordinates;
+        return Predicates.orient(c[a * 2], c[a * 2 + 1], c[b * 2], c[b * 2 + 1], x, y) < 0;
+    }
+
+    /**
+     * Adds a vector that lies inside the triangulation or on its hull
+     * by splitting the triangle or the edge it lies on.
+     * @param p             the vector
+     * @param e             a half-edge near the vector to start the
+     *                      search from
+     * @return              1 if the vector was added to the hull,
+     *                      0 otherwise
+     */
+    private int insert(int p, int e) {
+        double[] c = coordinates;
+        double x = c[p * 2], y = c[p * 2 + 1];
+        int t = locate(x, y, e - e % 3);
+        int a = triangles[t], b = triangles[t + 1], d = triangles[t + 2];
+        double o0 = Predicates.orient(c[a * 2], c[a * 2 + 1], c[b * 2], c[b * 2 + 1], x, y);
+        double o1 = Predicates.orient(c[b * 2], c[b * 2 + 1], c[d * 2], c[d * 2 + 1], x, y);
+        double o2 = Predicates.orient(c[d * 2], c[d * 2 + 1], c[a * 2], c[a * 2 + 1], x, y);
+        int zeros = (o0 == 0 ? 1 : 0) + (o1 == 0 ? 1 : 0) + (o2 == 0 ? 1 : 0);
+        if (zeros > 1) {
+            // A repeat of a vector of the triangle.
+            return 0;
+        }
+        if (zeros == 1) {
+            return splitEdge(o0 == 0 ? t : o1 == 0 ? t + 1 : t + 2, p);
+        }
+        splitTriangle(t, p);
+        return 0;
+    }
+
+    /**
+     * Walks from triangle t towards the vector x, y, each time crossing
+     * an edge that has the vector on its outer side. In a Delaunay
+     * triangulation this walk cannot circle, and it passes only the
+     * triangles between t and the vector.
+     * @return              the first index of the triangle that holds
+     *                      the vector, on its inside or on an edge
+     */
+    private int locate(double x, double y, int t) {
+        double[] c = coordinates;
+        for (int steps = 0; steps <= trianglesLength / 3; steps++) {
+            int crossed = -1;
+            for (int e = t; e < t + 3; e++) {
+                int a = triangles[e], b = triangles[next(e)];
+                if (Predicates.orient(c[a * 2], c[a * 2 + 1], c[b * 2], c[b * 2 + 1], x, y) < 0) {
+                    crossed = e;
+                    break;
+                }
+            }
+            if (crossed == -1) {
+                return t;
+            }
+            int opposite = halfedges[crossed];
+            if (opposite == -1) {
+                break;
+            }
+            t = opposite - opposite % 3;
+        }
+        throw new IllegalStateException("Vector " + x + ", " + y + " lies outside the triangulation.");
+    }
+
+    /**
+     * Splits triangle t in three around vector p inside it.
+     */
+    private void splitTriangle(int t, int p) {
+        int a = triangles[t], b = triangles[t + 1], d = triangles[t + 2];
+        int hb = halfedges[t + 1], hd = halfedges[t + 2];
+        // t becomes a, b, p.
+        triangles[t + 2] = p;
+        int t1 = addTriangle(b, d, p, hb, -1, t + 1);
+        int t2 = addTriangle(d, a, p, hd, t + 2, t1 + 1);
+        if (hb == -1) {
+            hullTri[b] = t1;
+        }
+        if (hd == -1) {
+            hullTri[d] = t2;
+        }
+        legalize(t);
+        legalize(t1);
+        legalize(t2);
+    }
+
+    /**
+     * Splits half-edge e, and its twin, at vector p on it.
+     * @return              1 if e was a hull edge, 0 otherwise
+     */
+    private int splitEdge(int e, int p) {
+        int en = next(e), ep = prev(e);
+        int a = triangles[e], b = triangles[en], d = triangles[ep];
+        int h = halfedges[e], hEp = halfedges[ep];
+        // The triangle of e becomes p, b, d.
+        triangles[e] = p;
+        if (h == -1) {
+            int t1 = addTriangle(a, p, d, -1, ep, hEp);
+            if (hEp == -1) {
+                hullTri[d] = t1 + 2;
+            }
+            // p joins the hull between a and b.
+            hullNext[a] = hullPrev[b] = p;
+            hullPrev[p] = a;
+            hullNext[p] = b;
+            hullTri[a] = t1;
+            hullTri[p] = e;
+            hullHash[hashKey(coordinates[p * 2], coordinates[p * 2 + 1])] = p;
+            legalize(en);
+            legalize(t1 + 2);
+            return 1;
+        }
+        int hn = next(h), hp = prev(h);
+        int f = triangles[hp], hHp = halfedges[hp];
+        // The triangle of the twin, b, a, f, becomes p, a, f.
+        triangles[h] = p;
+        int t1 = addTriangle(a, p, d, h, ep, hEp);
+        int t2 = addTriangle(b, p, f, e, hp, hHp);
+        if (hEp == -1) {
+            hullTri[d] = t1 + 2;
+        }
+        if (hHp == -1) {
+            hullTri[f] = t2 + 2;
+        }
+        legalize(en);
+        legalize(t1 + 2);
+        legalize(hn);
+        legalize(t2 + 2);
+        return 0;
+    }
+
+    /**
+     * Flips the edge a and the edges behind it until all triangles
+     * around them are Delaunay.
+     * @return              the half-edge that took the place of the
+     *                      edge before a
+     */
+    private int legalize(int a) {
+        int i = 0;
+        int ar;
+        double[] c = coordinates;
+        while (true) {
+            int b = halfedges[a];
+            int a0 = a - a % 3;
+            ar = a0 + (a + 2) % 3;
+            if (b == -1) {
+                if (i == 0) {
+                    break;
+                }
+                a = edgeStack[--i];
+                continue;
+            }
+            int b0 = b - b % 3;
+            int al = a0 + (a + 1) % 3;
+            int bl = b0 + (b + 2) % 3;
+            int p0 = triangles[ar], pr = triangles[a], pl = triangles[al], p1 = triangles[bl];
+            boolean illegal = Predicates.inCircle(
+                    c[p0 * 2], c[p0 * 2 + 1], c[pr * 2], c[pr * 2 + 1],
+                    c[pl * 2], c[pl * 2 + 1], c[p1 * 2], c[p1 * 2 + 1]) > 0;
+            if (illegal) {
+                triangles[a] = p1;
+                triangles[b] = p0;
+                // Hull edges behind the flipped edge move to a and b.
+                int hbl = halfedges[bl], har = halfedges[ar];
+                if (hbl == -1 && hullTri[p1] == bl) {
+                    hullTri[p1] = a;
+                }
+                if (har == -1 && hullTri[p0] == ar) {
+                    hullTri[p0] = b;
+                }
+                link(a, hbl);
+                link(b, har);
+                link(ar, bl);
+                int br = b0 + (b + 1) % 3;
+                if (i == edgeStack.length) {
+                    edgeStack = Arrays.copyOf(edgeStack, i * 2);
+                }
+                edgeStack[i++] = br;
+            } else {
+                if (i == 0) {
+                    break;
+                }
+                a = edgeStack[--i];
+            }
+        }
+        return ar;
+    }
+
+    private void link(int a, int b) {
+        halfedges[a] = b;
+        if (b != -1) {
+            halfedges[b] = a;
+        }
+    }
+
+    private int addTriangle(int i0, int i1, int i2, int a, int b, int c) {
+        int t = trianglesLength;
+        triangles[t] = i0;
+        triangles[t + 1] = i1;
+        triangles[t + 2] = i2;
+        link(t, a);
+        link(t + 1, b);
+        link(t + 2, c);
+        trianglesLength += 3;
+        return t;
+    }
+
+    /**
+     * Finds for every vector a half-edge that ends in it, the hull
+     * edge for vectors on the hull so a walk around them starts there.
+     */
+    private void link() {
+        inedges = new int[size];
+        Arrays.fill(inedges, -1);
+        for (int e = 0; e < triangles.length; e++) {
+            int p = triangles[next(e)];
+            if (halfedges[e] == -1 || inedges[p] == -1) {
+                inedges[p] = e;
+            }
+        }
+        hullIndex = new int[size];
+        Arrays.fill(hullIndex, -1);
+        for (int i = 0; i < hull.length; i++) {
+            hullIndex[hull[i]] = i;
+        }
+    }
+
+    private int hashKey(double x, double y) {
+        double dX = x - centreX, dY = y - centreY;
+        // Monotone in the angle, without trigonometry.
+        double p = dX / (Math.abs(dX) + Math.abs(dY));
+        double angle = (dY > 0 ? 3 - p : 1 + p) / 4;
+        return (int) Math.floor(angle * hashSize) % hashSize;
+    }
+
+    private void circumcentre(double aX, double aY, double bX, double bY, double cX, double cY) {
+        double dX = bX - aX, dY = bY - aY;
+        double eX = cX - aX, eY = cY - aY;
+        double bl = dX * dX + dY * dY, cl = eX * eX + eY * eY;
+        double d = 0.5d / (dX * eY - dY * eX);
+        centreX = aX + (eY * bl - dY * cl) * d;
+        centreY = aY + (dX * cl - eX * bl) * d;
+    }
+
+    private static double circumradius(double aX, double aY, double bX, double bY,
+                                       double cX, double cY) {
+        double dX = bX - aX, dY = bY - aY;
+        double eX = cX - aX, eY = cY - aY;
+        double bl = dX * dX + dY * dY, cl = eX * eX + eY * eY;
+        double d = 0.5d / (dX * eY - dY * eX);
+        double x = (eY * bl - dY * cl) * d, y = (dX * cl - eX * bl) * d;
+        double r = x * x + y * y;
+        return Double.isNaN(r) ? Double.POSITIVE_INFINITY : r;
+    }
+
+    private static double distanceSquared(double aX, double aY, double bX, double bY) {
+        double dX = aX - bX, dY = aY - bY;
+        return dX * dX + dY * dY;
+    }
+
+    /**
+     * Sorts the ids by their distances, splitting large ranges over
+     * all cores.
+     */
+    private static void sort(int[] ids, double[] distances) {
+        Sort sort = new Sort(ids, new int[ids.length], distances, 0, ids.length);
+        if (ids.length >= PARALLEL_THRESHOLD) {
+            ForkJoinPool.commonPool().invoke(sort);
+        } else {
+            sort.compute();
+        }
+    }
+
+    private static final class Sort extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        final private int[] ids, scratch;
+        final private double[] distances;
+        final private int lo, hi;
+
+        Sort(int[] ids, int[] scratch, double[] distances, int lo, int hi) {
+            this.ids = ids;
+            this.scratch = scratch;
+            this.distances = distances;
+            this.lo = lo;
+            this.hi = hi;
+        }
+
+        @Override
+        protected void compute() {
+            if (hi - lo < PARALLEL_THRESHOLD) {
+                quicksort(ids, distances, lo, hi - 1);
+                return;
+            }
+            int mid = (lo + hi) >>> 1;
+            invokeAll(new Sort(ids, scratch, distances, lo, mid),
+                    new Sort(ids, scratch, distances, mid, hi));
+            // Merge both sorted halves.
+            System.arraycopy(ids, lo, scratch, lo, hi - lo);
+            int i = lo, j = mid, k = lo;
+            while (i < mid && j < hi) {
+                ids[k++] = distances[scratch[j]] < distances[scratch[i]] ? scratch[j++] : scratch[i++];
+            }
+            while (i < mid) {
+                ids[k++] = scratch[i++];
+            }
+            while (j < hi) {
+                ids[k++] = scratch[j++];
+            }
+        }
+    }
+
+    private static void quicksort(int[] ids, double[] distances, int left, int right) {
+        while (right - left > 20) {
+            int median = (left + right) >>> 1;
+            int i = left + 1, j = right;
+            swap(ids, median, i);
+            if (distances[ids[left]] > distances[ids[right]]) {
+                swap(ids, left, right);
+            }
+            if (distances[ids[i]] > distances[ids[right]]) {
+                swap(ids, i, right);
+            }
+            if (distances[ids[left]] > distances[ids[i]]) {
+                swap(ids, left, i);
+            }
+            int temp = ids[i];
+            double tempDistance = distances[temp];
+            while (true) {
+                do {
+                    i++;
+                } while (distances[ids[i]] < tempDistance);
+                do {
+                    j--;
+                } while (distances[ids[j]] > tempDistance);
+                if (j < i) {
+                    break;
+                }
+                swap(ids, i, j);
+            }
+            ids[left + 1] = ids[j];
+            ids[j] = temp;
+            // Recurse into the smaller part, loop over the larger.
+            if (right - i + 1 >= j - left) {
+                quicksort(ids, distances, i, right);
+                right = j - 1;
+            } else {
+                quicksort(ids, distances, left, j - 1);
+                left = i;
+            }
+        }
+        for (int i = left + 1; i <= right; i++) {
+            int temp = ids[i];
+            double tempDistance = distances[temp];
+            int j = i - 1;
+            while (j >= left && distances[ids[j]] > tempDistance) {
+                ids[j + 1] = ids[j];
+                j--;
+            }
+            ids[j + 1] = temp;
+        }
+    }
+
+    private static void swap(int[] ids, int i, int j) {
+        int temp = ids[i];
+        ids[i] = ids[j];
+        ids[j] = temp;
+    }
+}
@@ -0,0 +1,162 @@
+package nl.pluizer.math2d;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Computes circles that enclose packed x, y pairs, used by the
+ * encapsulate methods of {@link Circle}.
+ *
+ * @author Richard van Roy
+ */
+final class EnclosingCircle {
+
+    // Relative slack so vectors on the boundary count as inside.
+    private static final double EPSILON = 1e-12;
+
+    private EnclosingCircle() {
+    }
+
+    /**
+     * Returns the smallest enclosing circle with the iterative form of
+     * Welzl's algorithm. The vectors are shuffled first, which makes
+     * the expected running time linear.
+     * @param coordinates   packed x, y pairs, not modified
+     * @param count         the number of vectors
+     * @return              a new array with the centre x, y and radius
+     */
+    static double[] minimum(double[] coordinates, int count) {
+        if (count == 0) {
+            throw new IllegalArgumentException("Need at least one vector.");
+        }
+        long start = Metrics.start();
+        double[] c = new double[count * 2];
+        System.arraycopy(coordinates, 0, c, 0, count * 2);
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int i = count - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            double x = c[i * 2], y = c[i * 2 + 1];
+            c[i * 2] = c[j * 2];
+            c[i * 2 + 1] = c[j * 2 + 1];
+            c[j * 2] = x;
+            c[j * 2 + 1] = y;
+        }
+        double[] circle = {c[0], c[1], 0};
+        for (int i = 1; i < count; i++) {
+            double iX = c[i * 2], iY = c[i * 2 + 1];
+            if (inside(circle, iX, iY)) {
+                continue;
+            }
+            // Vector i lies on the boundary of the circle of 0..i.
+            circle[0] = iX;
+            circle[1] = iY;
+            circle[2] = 0;
+            for (int j = 0; j < i; j++) {
+                double jX = c[j * 2], jY = c[j * 2 + 1];
+                if (inside(circle, jX, jY)) {
+                    continue;
+                }
+                // So do i and j for the circle of 0..j.
+                diameter(circle, iX, iY, jX, jY);
+                for (int k = 0; k < j; k++) {
+                    double kX = c[k * 2], kY = c[k * 2 + 1];
+                    if (!inside(circle, kX, kY)) {
+                        circumscribe(circle, iX, iY, jX, jY, kX, kY);
+                    }
+                }
+            }
+        }
+        // Make sure rounding leaves no vector just outside.
+        circle[2] *= 1 + EPSILON;
+        Metrics.record(Metrics.Operation.ENCLOSING_CIRCLE, count, start);
+        return circle;
+    }
+
+    /**
+     * Returns an enclosing circle that is usually a few percent larger
+     * than the smallest one, using Ritter's algorithm in three linear
+     * passes over the vectors.
+     * @param coordinates   packed x, y pairs
+     * @param count         the number of vectors
+     * @return              a new array with the centre x, y and radius
+     */
+    static double[] approximate(double[] coordinates, int count) {
+        if (count == 0) {
+            throw new IllegalArgumentException("Need at least one vector.");
+        }
+        long start = Metrics.start();
+        double[] c = coordinates;
+        int a = farthest(c, count, c[0], c[1]);
+        int b = farthest(c, count, c[a * 2], c[a * 2 + 1]);
+        double[] circle = new double[3];
+        diameter(circle, c[a * 2], c[a * 2 + 1], c[b * 2], c[b * 2 + 1]);
+        for (int i = 0; i < count; i++) {
+            double dX = c[i * 2] - circle[0], dY = c[i * 2 + 1] - circle[1];
+            double d2 = dX * dX + dY * dY;
+            if (d2 > circle[2] * circle[2]) {
+                // Grow just enough to touch the vector on the far side.
+                double d = Math.sqrt(d2);
+                double radius = (circle[2] + d) * 0.5d;
+                double shift = (radius - circle[2]) / d;
+                circle[0] += dX * shift;
+                circle[1] += dY * shift;
+                circle[2] = radius;
+            }
+        }
+        circle[2] *= 1 + EPSILON;
+        Metrics.record(Metrics.Operation.ENCLOSING_CIRCLE, count, start);
+        return circle;
+    }
+
+    private static int farthest(double[] c, int count, double x, double y) {
+        int best = 0;
+        double bestD2 = -1;
+        for (int i = 0; i < count; i++) {
+            double dX = c[i * 2] - x, dY = c[i * 2 + 1] - y;
+            double d2 = dX * dX + dY * dY;
+            if (d2 > bestD2) {
+                bestD2 = d2;
+                best = i;
+            }
+        }
+        return best;
+    }
+
+    private static boolean inside(double[] circle, double x, double y) {
+        double dX = x - circle[0], dY = y - circle[1];
+        return dX * dX + dY * dY <= circle[2] * circle[2] * (1 + EPSILON);
+    }
+
+    private static void diameter(double[] circle, double aX, double aY, double bX, double bY) {
+        circle[0] = (aX + bX) * 0.5d;
+        circle[1] = (aY + bY) * 0.5d;
+        double dX = aX - bX, dY = aY - bY;
+        circle[2] = Math.sqrt(dX * dX + dY * dY) * 0.5d;
+    }
+
+    private static void circumscribe(double[] circle, double aX, double aY,
+                                     double bX, double bY, double cX, double cY) {
+        double bx = bX - aX, by = bY - aY;
+        double cx = cX - aX, cy = cY - aY;
+        double d = 2 * (bx * cy - by * cx);
+        if (d == 0) {
+            // Collinear, the two vectors furthest apart make the circle.
+            double ab = bx * bx + by * by, ac = cx * cx + cy * cy;
+            double bcX = cX - bX, bcY = cY - bY;
+            double bc = bcX * bcX + bcY * bcY;
+            if (ab >= ac && ab >= bc) {
+                diameter(circle, aX, aY, bX, bY);
+            } else if (ac >= bc) {
+                diameter(circle, aX, aY, cX, cY);
+            } else {
+                diameter(circle, bX, bY, cX, cY);
+            }
+            return;
+        }
+        double b2 = bx * bx + by * by, c2 = cx * cx + cy * cy;
+        double uX = (cy * b2 - by * c2) / d;
+        double uY = (bx * c2 - cx * b2) / d;
+        circle[0] = aX + uX;
+        circle[1] = aY + uY;
+        circle[2] = Math.sqrt(uX * uX + uY * uY);
+    }
+}
@@ -0,0 +1,414 @@
+package nl.pluizer.math2d;
+
+/**
+ * The Flattening class turns curves into line segments that stay
+ * within a maximum distance (the tolerance) of the real curve.
+ *
+ * The number of segments is computed up front from the tolerance: for
+ * Bézier curves with Wang's formula, for arcs from the sagitta of a
+ * chord. The points are then evaluated at equal steps with forward
+ * differences, or with a fixed rotation for arcs, so every point costs
+ * a few additions and no vectors are allocated. Points are appended to
+ * a {@link VectorBuffer}. Long paths can be streamed in chunks with a
+ * {@link Path}.
+ *
+ * The curve methods append every point except the start point, so
+ * curves that follow each other can be written into one buffer without
+ * duplicate points.
+ *
+ * A single curve is flattened into at most {@link #MAX_SEGMENTS}
+ * segments, so a tiny tolerance cannot exhaust memory. A curve that
+ * needs more, because it is huge compared to the tolerance, is not
+ * kept within the tolerance. Split such curves before flattening them.
+ *
+ * @author Richard van Roy
+ */
+public final class Flattening {
+
+    /**
+     * The maximum number of segments for a single curve. Curves that
+     * would need more are flattened into this many segments, and then
+     * stay further than the tolerance from the curve.
+     */
+    public static final int MAX_SEGMENTS = 1 << 16;
+
+    private Flattening() {
+    }
+
+    private static void checkTolerance(double tolerance) {
+        if (!(tolerance > 0)) {
+            throw new IllegalArgumentException("The tolerance must be positive.");
+        }
+    }
+
+    private static int segments(double squared) {
+        // squared is the square of the number of segments needed.
+        double n = Math.ceil(Math.sqrt(squared));
+        return n < 1 ? 1 : n > MAX_SEGMENTS ? MAX_SEGMENTS : (int) n;
+    }
+
+    /**
+     * Returns the number of segments a quadratic Bézier curve is
+     * flattened into, at most MAX_SEGMENTS.
+     * @see #quadratic(double, double, double, double, double, double, double, VectorBuffer)
+     * @return              the number of segments
+     */
+    public static int quadraticSegments(double x0, double y0, double x1, double y1,
+                                        double x2, double y2, double tolerance) {
+        checkTolerance(tolerance);
+        double ddX = x0 - 2 * x1 + x2, ddY = y0 - 2 * y1 + y2;
+        return segments(Math.sqrt(ddX * ddX + ddY * ddY) / (4 * tolerance));
+    }
+
+    /**
+     * Appends a quadratic Bézier curve, without its start point.
+     * @param x0            the x value of the start point
+     * @param y0            the y value of the start point
+     * @param x1            the x value of the control point
+     * @param y1            the y value of the control point
+     * @param x2            the x value of the end point
+     * @param y2            the y value of the end point
+     * @param tolerance     the maximum distance to the curve, not met
+     *                      if that takes more than MAX_SEGMENTS
+     * @param out           receives the points
+     */
+    public static void quadratic(double x0, double y0, double x1, double y1,
+                                 double x2, double y2, double tolerance, VectorBuffer out) {
+        int n = quadraticSegments(x0, y0, x1, y1, x2, y2, tolerance);
+        double h = 1.0d / n;
+        // B(t) = a t^2 + b t + p0
+        double aX = x0 - 2 * x1 + x2, aY = y0 - 2 * y1 + y2;
+        double bX = 2 * (x1 - x0), bY = 2 * (y1 - y0);
+        double dX = aX * h * h + bX * h, dY = aY * h * h + bY * h;
+        double ddX = 2 * aX * h * h, ddY = 2 * aY * h * h;
+        double x = x0, y = y0;
+        out.ensureCapacity(out.size() + n);
+        for (int i = 1; i < n; i++) {
+            x += dX;
+            y += dY;
+            dX += ddX;
+            dY += ddY;
+            out.add(x, y);
+        }
+        out.add(x2, y2);
+    }
+
+    /**
+     * Returns the number of segments a cubic Bézier curve is flattened
+     * into, at most MAX_SEGMENTS.
+     * @see #cubic(double, double, double, double, double, double, double, double, double, VectorBuffer)
+     * @return              the number of segments
+     */
+    public static int cubicSegments(double x0, double y0, double x1, double y1,
+                                    double x2, double y2, double x3, double y3,
+                                    double tolerance) {
+        checkTolerance(tolerance);
+        double aX = x0 - 2 * x1 + x2, aY = y0 - 2 * y1 + y2;
+        double bX = x1 - 2 * x2 + x3, bY = y1 - 2 * y2 + y3;
+        double m = Math.sqrt(Math.max(aX * aX + aY * aY, bX * bX + bY * bY));
+        return segments(0.75d * m / tolerance);
+    }
+
+    /**
+     * Appends a cubic Bézier curve, without its start point.
+     * @param x0            the x value of the start point
+     * @param y0            the y value of the start point
+     * @param x1            the x value of the first control point
+     * @param y1            the y value of the first control point
+     * @param x2            the x value of the second control point
+     * @param y2            the y value of the second control point
+     * @param x3            the x value of the end point
+     * @param y3            the y value of the end point
+     * @param tolerance     the maximum distance to the curve, not met
+     *                      if that takes more than MAX_SEGMENTS
+     * @param out           receives the points
+     */
+    public static void cubic(double x0, double y0, double x1, double y1,
+                             double x2, double y2, double x3, double y3,
+                             double tolerance, VectorBuffer out) {
+        int n = cubicSegments(x0, y0, x1, y1, x2, y2, x3, y3, tolerance);
+        double h = 1.0d / n, h2 = h * h, h3 = h2 * h;
+        // B(t) = a t^3 + b t^2 + c t + p0
+        double aX = -x0 + 3 * (x1 - x2) + x3, aY = -y0 + 3 * (y1 - y2) + y3;
+        double bX = 3 * (x0 - 2 * x1 + x2), bY = 3 * (y0 - 2 * y1 + y2);
+        double cX = 3 * (x1 - x0), cY = 3 * (y1 - y0);
+        double dX = aX * h3 + bX * h2 + cX * h, dY = aY * h3 + bY * h2 + cY * h;
+        double ddX = 6 * aX * h3 + 2 * bX * h2, ddY = 6 * aY * h3 + 2 * bY * h2;
+        double dddX = 6 * aX * h3, dddY = 6 * aY * h3;
+        double x = x0, y = y0;
+        out.ensureCapacity(out.size() + n);
+        for (int i = 1; i < n; i++) {
+            x += dX;
+            y += dY;
+            dX += ddX;
+            dY += ddY;
+            ddX += dddX;
+            ddY += dddY;
+            out.add(x, y);
+        }
+        out.add(x3, y3);
+    }
+
+    /**
+     * Returns the number of segments an arc is flattened into, at most
+     * MAX_SEGMENTS.
+     * @param radius        the radius of the arc
+     * @param sweep         the angle of the arc in radians
+     * @param tolerance     the maximum distance to the arc
+     * @return              the number of segments
+     */
+    public static int arcSegments(double radius, double sweep, double tolerance) {
+        checkTolerance(tolerance);
+        // A chord of angle a lies r (1 - cos(a / 2)) from the arc.
+        double step = 2 * Math.acos(Math.max(-1.0d, 1.0d - tolerance / Math.abs(radius)));
+        return segments(Math.abs(sweep) / step * (Math.abs(sweep) / step));
+    }
+
+    /**
+     * Appends a circular arc, without its start point. Positive sweeps
+     * go counter-clockwise.
+     * @param centreX       the x value of the centre
+     * @param centreY       the y value of the centre
+     * @param radius        the radius
+     * @param start         the angle of the start point in radians
+     * @param sweep         the angle of the arc in radians
+     * @param tolerance     the maximum distance to the arc, not met
+     *                      if that takes more than MAX_SEGMENTS
+     * @param out           receives the points
+     */
+    public static void arc(double centreX, double centreY, double radius,
+                           double start, double sweep, double tolerance, VectorBuffer out) {
+        int n = arcSegments(radius, sweep, tolerance);
+        rotations(centreX, centreY, radius * Math.cos(start), radius * Math.sin(start),
+                sweep / n, n - 1, out);
+        out.add(centreX + radius * Math.cos(start + sweep),
+                centreY + radius * Math.sin(start + sweep));
+    }
+
+    /**
+     * Appends the outline of a circle, counter-clockwise and starting
+     * at the right-most point, as a closed polygon of at least three
+     * points.
+     * @param centreX       the x value of the centre
+     * @param centreY       the y value of the centre
+     * @param radius        the radius
+     * @param tolerance     the maximum distance to the circle, not
+     *                      met if that takes more than MAX_SEGMENTS
+     * @param out           receives the points
+     */
+    public static void circle(double centreX, double centreY, double radius,
+                              double tolerance, VectorBuffer out) {
+        int n = Math.max(3, arcSegments(radius, 2 * Math.PI, tolerance));
+        out.ensureCapacity(out.size() + n);
+        out.add(centreX + radius, centreY);
+        rotations(centreX, centreY, radius, 0, 2 * Math.PI / n, n - 1, out);
+    }
+
+    /**
+     * Returns the outline of a circle as a polygon.
+     * @see #circle(double, double, double, double, VectorBuffer)
+     * @param circle        the circle
+     * @param tolerance     the maximum distance to the circle
+     * @return              a new polygon
+     */
+    public static Polygon circle(Circle circle, double tolerance) {
+        VectorBuffer out = new VectorBuffer();
+        circle(circle.getCentre().getX(), circle.getCentre().getY(),
+                circle.getRadius(), tolerance, out);
+        return out.toPolygon();
+    }
+
+    /**
+     * Appends count points, each rotated a further step around the
+     * centre, starting one step after the offset (x, y).
+     */
+    private static void rotations(double centreX, double centreY, double x, double y,
+                                  double step, int count, VectorBuffer out) {
+        double cos = Math.cos(step), sin = Math.sin(step);
+        out.ensureCapacity(out.size() + count + 1);
+        for (int i = 0; i < count; i++) {
+            double rX = x * cos - y * sin;
+            y = x * sin + y * cos;
+            x = rX;
+            out.add(centreX + x, centreY + y);
+        }
+    }
+
+    /**
+     * The Path class flattens a path of lines and curves and hands the
+     * points over in chunks, so paths of any length can be processed
+     * with a fixed amount of memory. A chunk is handed over as soon as
+     * it holds the chunk size of points, also in the middle of a curve,
+     * so no chunk is ever larger. The next chunk starts with the last
+     * point of the previous one, so every chunk is a polyline of its
+     * own.
+     */
+    public static final class Path {
+
+        /**
+         * Receives the chunks of a path.
+         */
+        public interface Sink {
+
+            /**
+             * Receives the next points of the current polyline. The
+             * buffer is reused for the next chunk. Every polyline ends
+             * with a chunk with end set, which only holds the last point
+             * of the previous chunk if that one was full.
+             * @param points        the points of this chunk
+             * @param end           true if this is the last chunk of
+             *                      the polyline, false if more follow
+             */
+            void accept(VectorBuffer points, boolean end);
+        }
+
+        final private double tolerance;
+        final private int chunkSize;
+        final private Sink sink;
+        final private Chunk points;
+
+        private double firstX, firstY;
+        private double lastX, lastY;
+        private boolean handedOver;
+
+        /**
+         * Creates a path.
+         * @param tolerance     the maximum distance to the curves, not
+         *                      met by curves that take more than
+         *                      MAX_SEGMENTS
+         * @param chunkSize     the number of points after which a
+         *                      chunk is handed over
+         * @param sink          receives the chunks
+         */
+        public Path(double tolerance, int chunkSize, Sink sink) {
+            checkTolerance(tolerance);
+            if (chunkSize < 2) {
+                throw new IllegalArgumentException("A chunk needs at least two points.");
+            }
+            this.tolerance = tolerance;
+            this.chunkSize = chunkSize;
+            this.sink = sink;
+            this.points = new Chunk();
+        }
+
+        /**
+         * Ends the current polyline and starts a new one.
+         * @param x             the x value of the start point
+         * @param y             the y value of the start point
+         */
+        public void moveTo(double x, double y) {
+            end();
+            points.add(x, y);
+            firstX = x;
+            firstY = y;
+        }
+
+        /**
+         * Adds a line to a point.
+         * @param x             the x value of the end point
+         * @param y             the y value of the end point
+         */
+        public void lineTo(double x, double y) {
+            started();
+            points.add(x, y);
+        }
+
+        /**
+         * Adds a quadratic Bézier curve.
+         * @param x1            the x value of the control point
+         * @param y1            the y value of the control point
+         * @param x2            the x value of the end point
+         * @param y2            the y value of the end point
+         */
+        public void quadTo(double x1, double y1, double x2, double y2) {
+            started();
+            quadratic(lastX, lastY, x1, y1, x2, y2, tolerance, points);
+        }
+
+        /**
+         * Adds a cubic Bézier curve.
+         * @param x1            the x value of the first control point
+         * @param y1            the y value of the first control point
+         * @param x2            the x value of the second control point
+         * @param y2            the y value of the second control point
+         * @param x3            the x value of the end point
+         * @param y3            the y value of the end point
+         */
+        public void cubicTo(double x1, double y1, double x2, double y2, double x3, double y3) {
+            started();
+            cubic(lastX, lastY, x1, y1, x2, y2, x3, y3, tolerance, points);
+        }
+
+        /**
+         * Adds an arc from the current point around a centre.
+         * @param centreX       the x value of the centre
+         * @param centreY       the y value of the centre
+         * @param sweep         the angle of the arc in radians,
+         *                      positive is counter-clockwise
+         */
+        public void arcTo(double centreX, double centreY, double sweep) {
+            started();
+            double x = lastX - centreX, y = lastY - centreY;
+            arc(centreX, centreY, Math.sqrt(x * x + y * y), Math.atan2(y, x),
+                    sweep, tolerance, points);
+        }
+
+        /**
+         * Adds a line back to the start of the polyline and ends it.
+         */
+        public void close() {
+            started();
+            if (lastX != firstX || lastY != firstY) {
+                points.add(firstX, firstY);
+            }
+            end();
+        }
+
+        /**
+         * Hands over the rest of the current polyline, if any.
+         */
+        public void end() {
+            if (points.size() > 1 || handedOver) {
+                sink.accept(points, true);
+            }
+            points.clear();
+            handedOver = false;
+        }
+
+        private void started() {
+            if (points.isEmpty()) {
+                throw new IllegalStateException("A path must start with moveTo.");
+            }
+        }
+
+        /**
+         * The buffer of the current chunk, which hands itself over as
+         * soon as it is full.
+         */
+        private final class Chunk extends VectorBuffer {
+
+            Chunk() {
+                super(chunkSize);
+            }
+
+            @Override
+            public void add(double x, double y) {
+                super.add(x, y);
+                lastX = x;
+                lastY = y;
+                if (size() >= chunkSize) {
+                    sink.accept(this, false);
+                    handedOver = true;
+                    clear();
+                    super.add(x, y);
+                }
+            }
+
+            @Override
+            public void ensureCapacity(int capacity) {
+                // The curves reserve room for all their points at once.
+                super.ensureCapacity(Math.min(capacity, chunkSize));
+            }
+        }
+    }
+}
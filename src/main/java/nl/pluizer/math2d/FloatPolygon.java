@@ -0,0 +1,223 @@
+package nl.pluizer.math2d;
+
+import java.util.List;
+
+/**
+ * The FloatPolygon class is the single precision counterpart of
+ * {@link Polygon}. Its vectors are stored as packed x, y pairs in a
+ * float array, a quarter of the memory of a list of vectors. Like
+ * Polygon it is immutable.
+ *
+ * Operations that need the extra precision, such as convex hulls and
+ * clipping, are done in double precision and only the result is
+ * rounded to floats.
+ *
+ * @author Richard van Roy
+ */
+public class FloatPolygon {
+
+    final private float[] coordinates;
+
+    private FloatPolygon(float[] coordinates, boolean copy) {
+        this.coordinates = copy ? coordinates.clone() : coordinates;
+    }
+
+    /**
+     * Creates a polygon from packed coordinates.
+     * @param coordinates   the x, y pairs to copy
+     */
+    public FloatPolygon(float[] coordinates) {
+        this(coordinates, true);
+        if (coordinates.length % 2 != 0) {
+            throw new IllegalArgumentException("Need an even number of coordinates.");
+        }
+    }
+
+    /**
+     * Creates a polygon from the vectors of a buffer.
+     * @param vectors       the buffer to copy
+     */
+    public FloatPolygon(FloatVectorBuffer vectors) {
+        this(vectors.toArray(), false);
+    }
+
+    /**
+     * Creates a single precision copy of a polygon, rounding its
+     * vectors to the nearest float.
+     * @param polygon       the polygon to copy
+     */
+    public FloatPolygon(Polygon polygon) {
+        this(new FloatVectorBuffer(polygon));
+    }
+
+    /**
+     * Creates a new polygon from a rectangle.
+     * @param rectangle     the rectangle to make the polygon out of
+     */
+    public FloatPolygon(FloatRectangle rectangle) {
+        this(new float[] {
+                rectangle.getLeft(), rectangle.getTop(),
+                rectangle.getLeft(), rectangle.getBottom(),
+                rectangle.getRight(), rectangle.getBottom(),
+                rectangle.getRight(), rectangle.getTop()}, false);
+    }
+
+    /**
+     * @return              the number of vectors of this polygon
+     */
+    public int size() {
+        return coordinates.length / 2;
+    }
+
+    /**
+     * @param index         the index of the vector
+     * @return              the x value of the vector at index
+     */
+    public float getX(int index) {
+        return coordinates[index * 2];
+    }
+
+    /**
+     * @param index         the index of the vector
+     * @return              the y value of the vector at index
+     */
+    public float getY(int index) {
+        return coordinates[index * 2 + 1];
+    }
+
+    /**
+     * Returns the vector at an index.
+     * @param index         the index of the vector
+     * @return              a new vector
+     */
+    public Vector get(int index) {
+        return new Vector(getX(index), getY(index));
+    }
+
+    /**
+     * @return              a new array with the packed x, y pairs of
+     *                      this polygon
+     */
+    public float[] toArray() {
+        return coordinates.clone();
+    }
+
+    /**
+     * Appends the vectors of this polygon to a buffer.
+     * @param out           the buffer to append to
+     */
+    public void copyTo(FloatVectorBuffer out) {
+        out.ensureCapacity(out.size() + size());
+        for (int i = 0; i < coordinates.length; i += 2) {
+            out.add(coordinates[i], coordinates[i + 1]);
+        }
+    }
+
+    /**
+     * @return              a new double precision buffer with the
+     *                      vectors of this polygon
+     */
+    public VectorBuffer toVectorBuffer() {
+        VectorBuffer result = new VectorBuffer(size());
+        for (int i = 0; i < coordinates.length; i += 2) {
+            result.add(coordinates[i], coordinates[i + 1]);
+        }
+        return result;
+    }
+
+    /**
+     * @return              a new double precision polygon with the
+     *                      vectors of this polygon
+     */
+    public Polygon toPolygon() {
+        return toVectorBuffer().toPolygon();
+    }
+
+    /**
+     * @return              the vectors that make up this polygon
+     */
+    public List<Vector> getVectors() {
+        return toVectorBuffer().toVectors();
+    }
+
+    /**
+     * Adds a vector to a polygon and returns the result.
+     * @param vector        the vector to add
+     * @return              a new polygon as the result
+     */
+    public FloatPolygon add(Vector vector) {
+        float x = (float) vector.getX(), y = (float) vector.getY();
+        float[] result = new float[coordinates.length];
+        for (int i = 0; i < result.length; i += 2) {
+            result[i] = coordinates[i] + x;
+            result[i + 1] = coordinates[i + 1] + y;
+        }
+        return new FloatPolygon(result, false);
+    }
+
+    /**
+     * Subtracts a vector from a polygon and returns the result.
+     * @param vector        the vector to subtract
+     * @return              a new polygon as the result
+     */
+    public FloatPolygon subtract(Vector vector) {
+        float x = (float) vector.getX(), y = (float) vector.getY();
+        float[] result = new float[coordinates.length];
+        for (int i = 0; i < result.length; i += 2) {
+            result[i] = coordinates[i] - x;
+            result[i + 1] = coordinates[i + 1] - y;
+        }
+        return new FloatPolygon(result, false);
+    }
+
+    /**
+     * Rotates a polygon a certain angle around a point of
+     * origin (pivot).
+     * @param angle         the angle to rotate the polygon
+     * @param origin        the point of origin of the polygon
+     * @return              a new rotated polygon
+     */
+    public FloatPolygon rotate(Angle angle, Vector origin) {
+        FloatVectorBuffer result = new FloatVectorBuffer(coordinates);
+        result.rotate(angle, origin);
+        return new FloatPolygon(result);
+    }
+
+    /**
+     * Rotates a polygon a certain angle.
+     * @param angle         the angle to rotate the polygon
+     * @return              a new rotated polygon
+     */
+    public FloatPolygon rotate(Angle angle) {
+        return rotate(angle, new Vector());
+    }
+
+    /**
+     * Returns the convex hull of this polygon.
+     * @see Polygon#convexHull()
+     * @return              a new convex polygon
+     */
+    public FloatPolygon convexHull() {
+        return new FloatPolygon(toPolygon().convexHull());
+    }
+
+    /**
+     * Clips this polygon against a rectangle.
+     * @param viewport      the rectangle to clip against
+     * @return              a new clipped polygon, without vectors if
+     *                      nothing is left
+     */
+    public FloatPolygon clip(FloatRectangle viewport) {
+        VectorBuffer out = new VectorBuffer(size() + 4);
+        new PolygonClipper().clip(toVectorBuffer(), viewport.toRectangle(), out);
+        return new FloatPolygon(new FloatVectorBuffer(out));
+    }
+
+    /**
+     * Returns the smallest rectangle that contains this polygon.
+     * @return              a new rectangle
+     */
+    public FloatRectangle bounds() {
+        return FloatRectangle.encapsulateVectors(new FloatVectorBuffer(coordinates));
+    }
+}
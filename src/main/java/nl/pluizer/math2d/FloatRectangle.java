@@ -0,0 +1,258 @@
+package nl.pluizer.math2d;
+
+/**
+ * The FloatRectangle class is the single precision counterpart of
+ * {@link Rectangle}, for storing many axis aligned rectangles at half
+ * the memory. Its edges are always ordered, left is never right of
+ * right and bottom is never above top.
+ *
+ * @author Richard van Roy
+ */
+public class FloatRectangle implements Shape {
+
+    final private float left, right, bottom, top;
+
+    private FloatRectangle(float left, float right, float bottom, float top) {
+        this.left = left;
+        this.right = right;
+        this.bottom = bottom;
+        this.top = top;
+    }
+
+    /**
+     * Creates a single precision copy of a rectangle, rounding its
+     * edges to the nearest float.
+     * @param rectangle     the rectangle to copy
+     */
+    public FloatRectangle(Rectangle rectangle) {
+        this((float) Math.min(rectangle.getLeft(), rectangle.getRight()),
+                (float) Math.max(rectangle.getLeft(), rectangle.getRight()),
+                (float) Math.min(rectangle.getBottom(), rectangle.getTop()),
+                (float) Math.max(rectangle.getBottom(), rectangle.getTop()));
+    }
+
+    /**
+     * Creates a rectangle from its lowest and highest x and y values.
+     * @param minX          the lowest x value
+     * @param minY          the lowest y value
+     * @param maxX          the highest x value
+     * @param maxY          the highest y value
+     * @return              a new rectangle
+     */
+    public static FloatRectangle fromBounds(float minX, float minY, float maxX, float maxY) {
+        return new FloatRectangle(Math.min(minX, maxX), Math.max(minX, maxX),
+                Math.min(minY, maxY), Math.max(minY, maxY));
+    }
+
+    /**
+     * Returns a rectangle that bounds over (can contain) all vectors
+     * in a buffer.
+     * @param vectors       the vectors to contain
+     * @return              a new rectangle that contains those vectors
+     */
+    public static FloatRectangle encapsulateVectors(FloatVectorBuffer vectors) {
+        int n = vectors.size();
+        if (n == 0) {
+            throw new IllegalArgumentException("Need at least one vector.");
+        }
+        float[] c = vectors.getCoordinates();
+        float minX = c[0], maxX = c[0], minY = c[1], maxY = c[1];
+        for (int i = 2; i < n * 2; i += 2) {
+            minX = Math.min(minX, c[i]);
+            maxX = Math.max(maxX, c[i]);
+            minY = Math.min(minY, c[i + 1]);
+            maxY = Math.max(maxY, c[i + 1]);
+        }
+        return new FloatRectangle(minX, maxX, minY, maxY);
+    }
+
+    /**
+     * @return              a new double precision rectangle with the
+     *                      same edges
+     */
+    public Rectangle toRectangle() {
+        return Rectangle.fromBounds(left, bottom, right, top);
+    }
+
+    /**
+     * @return              the x value of the left edge
+     */
+    public float getLeft() {
+        return left;
+    }
+
+    /**
+     * @return              the x value of the right edge
+     */
+    public float getRight() {
+        return right;
+    }
+
+    /**
+     * @return              the y value of the bottom edge
+     */
+    public float getBottom() {
+        return bottom;
+    }
+
+    /**
+     * @return              the y value of the top edge
+     */
+    public float getTop() {
+        return top;
+    }
+
+    /**
+     * Returns the total width of this rectangle.
+     * @return              the width of this rectangle
+     */
+    @Override
+    public double getWidth() {
+        return (double) right - left;
+    }
+
+    /**
+     * Returns the total height of this rectangle.
+     * @return              the height of this rectangle
+     */
+    @Override
+    public double getHeight() {
+        return (double) top - bottom;
+    }
+
+    /**
+     * Returns the total area of this rectangle
+     * @return              the area of this rectangle
+     */
+    public double area() {
+        return getWidth() * getHeight();
+    }
+
+    /**
+     * Returns the centre position of this rectangle
+     * @return              a vector of the centre position
+     */
+    public Vector centre() {
+        return new Vector(((double) left + right) * 0.5d, ((double) bottom + top) * 0.5d);
+    }
+
+    /**
+     * Returns the area, centroid and moment of inertia of this
+     * rectangle.
+     * @return              the mass properties of this rectangle
+     */
+    public MassProperties massProperties() {
+        return MassProperties.rectangle(((double) left + right) * 0.5d,
+                ((double) bottom + top) * 0.5d, getWidth(), getHeight());
+    }
+
+    /**
+     * Returns true if an other rectangle intersects this one.
+     * @param other         the other rectangle
+     * @return              true on intersection, false otherwise
+     */
+    public boolean intersects(FloatRectangle other) {
+        return left <= other.right && other.left <= right &&
+                bottom <= other.top && other.bottom <= top;
+    }
+
+    /**
+     * Returns true if an other rectangle lies completely inside
+     * this rectangle.
+     * @param other         the other rectangle
+     * @return              true if other lies inside this rectangle,
+     *                      false otherwise
+     */
+    public boolean contains(FloatRectangle other) {
+        return left <= other.left && right >= other.right &&
+                bottom <= other.bottom && top >= other.top;
+    }
+
+    /**
+     * Returns true if a vector lies inside this rectangle.
+     * @param vector        the vector
+     * @return              true of vector lies inside, false otherwise
+     */
+    public boolean contains(Vector vector) {
+        double vX = vector.getX(), vY = vector.getY();
+        return left <= vX && right >= vX && bottom <= vY && top >= vY;
+    }
+
+    /**
+     * Returns a rectangle contains this rectangle and the other one.
+     * @param other         the other rectangle
+     * @return              a new rectangle that contains both.
+     */
+    public FloatRectangle merge(FloatRectangle other) {
+        return new FloatRectangle(
+                Math.min(left, other.left), Math.max(right, other.right),
+                Math.min(bottom, other.bottom), Math.max(top, other.top));
+    }
+
+    /**
+     * If the line between vectors v1 and v2 hits this rectangle,
+     * returns the fraction along the line where it is hit.
+     * @see Rectangle#segmentQuery(Vector, Vector)
+     * @param v1            start of the line
+     * @param v2            end of the line
+     * @return              fraction along the segment query
+     *                      or Double.POSITIVE_INFINITY
+     */
+    public double segmentQuery(Vector v1, Vector v2) {
+        double xA = v1.getX(), yA = v1.getY();
+        double dX = v2.getX() - xA, dY = v2.getY() - yA;
+        double tMin = 0.0d, tMax = 1.0d;
+        if (dX == 0) {
+            if (xA < left || xA > right) {
+                return Double.POSITIVE_INFINITY;
+            }
+        } else {
+            double t1 = (left - xA) / dX, t2 = (right - xA) / dX;
+            tMin = Math.max(tMin, Math.min(t1, t2));
+            tMax = Math.min(tMax, Math.max(t1, t2));
+        }
+        if (dY == 0) {
+            if (yA < bottom || yA > top) {
+                return Double.POSITIVE_INFINITY;
+            }
+        } else {
+            double t1 = (bottom - yA) / dY, t2 = (top - yA) / dY;
+            tMin = Math.max(tMin, Math.min(t1, t2));
+            tMax = Math.min(tMax, Math.max(t1, t2));
+        }
+        return tMin <= tMax ? tMin : Double.POSITIVE_INFINITY;
+    }
+
+    /**
+     * Returns the vector clamped to this rectangle.
+     * @param vector        the vector to clamp
+     * @return              a new vector inside this rectangle
+     */
+    public Vector clamp(Vector vector) {
+        return new Vector(
+                Math.max(left, Math.min(right, vector.getX())),
+                Math.max(bottom, Math.min(top, vector.getY())));
+    }
+
+    /**
+     * Returns the a new rectangle that is the sum of this
+     * rectangle and a vector.
+     * @param vector        the vector to add
+     * @return              the new rectangle
+     */
+    public FloatRectangle add(Vector vector) {
+        float x = (float) vector.getX(), y = (float) vector.getY();
+        return new FloatRectangle(left + x, right + x, bottom + y, top + y);
+    }
+
+    /**
+     * Returns the a new rectangle that is the subtraction of this
+     * rectangle and a vector.
+     * @param vector        the vector to subtract
+     * @return              the new rectangle
+     */
+    public FloatRectangle subtract(Vector vector) {
+        float x = (float) vector.getX(), y = (float) vector.getY();
+        return new FloatRectangle(left - x, right - x, bottom - y, top - y);
+    }
+}
@@ -0,0 +1,290 @@
+package nl.pluizer.math2d;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The FloatVectorBuffer class is the single precision counterpart of
+ * {@link VectorBuffer}. It stores a growing list of vectors as packed
+ * x, y pairs in a single float array, which takes half the memory.
+ * Values are rounded to the nearest float when they are stored.
+ *
+ * @author Richard van Roy
+ */
+public class FloatVectorBuffer {
+
+    private float[] coordinates;
+
+    private int size;
+
+    /**
+     * Creates an empty buffer.
+     */
+    public FloatVectorBuffer() {
+        this(16);
+    }
+
+    /**
+     * Creates an empty buffer that can hold a number of vectors
+     * before it has to grow.
+     * @param capacity      the initial number of vectors
+     */
+    public FloatVectorBuffer(int capacity) {
+        this.coordinates = new float[Math.max(2, capacity * 2)];
+    }
+
+    /**
+     * Creates a buffer from packed coordinates.
+     * @param coordinates   the x, y pairs to copy
+     */
+    public FloatVectorBuffer(float[] coordinates) {
+        if (coordinates.length % 2 != 0) {
+            throw new IllegalArgumentException("Need an even number of coordinates.");
+        }
+        this.coordinates = Arrays.copyOf(coordinates, Math.max(2, coordinates.length));
+        this.size = coordinates.length / 2;
+    }
+
+    /**
+     * Creates a buffer from a double precision buffer.
+     * @param vectors       the buffer to copy
+     */
+    public FloatVectorBuffer(VectorBuffer vectors) {
+        this(vectors.size());
+        addAll(vectors);
+    }
+
+    /**
+     * Creates a buffer from a list of vectors.
+     * @param vectors       the vectors to copy
+     */
+    public FloatVectorBuffer(List<Vector> vectors) {
+        this(vectors.size());
+        addAll(vectors);
+    }
+
+    /**
+     * Creates a buffer from the vectors of a polygon.
+     * @param polygon       the polygon to copy
+     */
+    public FloatVectorBuffer(Polygon polygon) {
+        this(polygon.getVectors());
+    }
+
+    /**
+     * @return              the number of vectors in this buffer
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return              true if this buffer holds no vectors
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * @param index         the index of the vector
+     * @return              the x value of the vector at index
+     */
+    public float getX(int index) {
+        return coordinates[index * 2];
+    }
+
+    /**
+     * @param index         the index of the vector
+     * @return              the y value of the vector at index
+     */
+    public float getY(int index) {
+        return coordinates[index * 2 + 1];
+    }
+
+    /**
+     * Returns the vector at an index.
+     * @param index         the index of the vector
+     * @return              a new vector
+     */
+    public Vector get(int index) {
+        return new Vector(getX(index), getY(index));
+    }
+
+    /**
+     * Replaces the vector at an index.
+     * @param index         the index of the vector
+     * @param x             the new x value
+     * @param y             the new y value
+     */
+    public void set(int index, float x, float y) {
+        coordinates[index * 2] = x;
+        coordinates[index * 2 + 1] = y;
+    }
+
+    /**
+     * Appends a vector to this buffer.
+     * @param x             the x value
+     * @param y             the y value
+     */
+    public void add(float x, float y) {
+        ensureCapacity(size + 1);
+        coordinates[size * 2] = x;
+        coordinates[size * 2 + 1] = y;
+        size++;
+    }
+
+    /**
+     * Appends a vector to this buffer.
+     * @param vector        the vector to append
+     */
+    public void add(Vector vector) {
+        add((float) vector.getX(), (float) vector.getY());
+    }
+
+    /**
+     * Appends all vectors of a list to this buffer.
+     * @param vectors       the vectors to append
+     */
+    public void addAll(List<Vector> vectors) {
+        ensureCapacity(size + vectors.size());
+        for (Vector v : vectors) {
+            coordinates[size * 2] = (float) v.getX();
+            coordinates[size * 2 + 1] = (float) v.getY();
+            size++;
+        }
+    }
+
+    /**
+     * Appends all vectors of another buffer to this buffer.
+     * @param other         the buffer to append
+     */
+    public void addAll(FloatVectorBuffer other) {
+        ensureCapacity(size + other.size);
+        System.arraycopy(other.coordinates, 0, coordinates, size * 2, other.size * 2);
+        size += other.size;
+    }
+
+    /**
+     * Appends all vectors of a double precision buffer to this buffer.
+     * @param other         the buffer to append
+     */
+    public void addAll(VectorBuffer other) {
+        int n = other.size() * 2;
+        ensureCapacity(size + other.size());
+        double[] c = other.getCoordinates();
+        int offset = size * 2;
+        for (int i = 0; i < n; i++) {
+            coordinates[offset + i] = (float) c[i];
+        }
+        size += other.size();
+    }
+
+    /**
+     * Moves every vector of this buffer.
+     * @param x             the x value to add
+     * @param y             the y value to add
+     */
+    public void translate(float x, float y) {
+        for (int i = 0; i < size * 2; i += 2) {
+            coordinates[i] += x;
+            coordinates[i + 1] += y;
+        }
+    }
+
+    /**
+     * Rotates every vector of this buffer around a point of origin.
+     * @param angle         the angle to rotate
+     * @param origin        the point of origin
+     */
+    public void rotate(Angle angle, Vector origin) {
+        double cA = Math.cos(angle.getRadian());
+        double sA = Math.sin(angle.getRadian());
+        double oX = origin.getX(), oY = origin.getY();
+        for (int i = 0; i < size * 2; i += 2) {
+            double x = coordinates[i] - oX, y = coordinates[i + 1] - oY;
+            coordinates[i] = (float) (oX + x * cA - y * sA);
+            coordinates[i + 1] = (float) (oY + x * sA + y * cA);
+        }
+    }
+
+    /**
+     * Removes all vectors, but keeps the allocated memory so the
+     * buffer can be refilled without allocating.
+     */
+    public void clear() {
+        size = 0;
+    }
+
+    /**
+     * Makes sure this buffer can hold a number of vectors without
+     * having to grow.
+     * @param capacity      the number of vectors
+     */
+    public void ensureCapacity(int capacity) {
+        if (capacity * 2 > coordinates.length) {
+            coordinates = Arrays.copyOf(coordinates,
+                    Math.max(capacity * 2, coordinates.length * 2));
+        }
+    }
+
+    /**
+     * Returns the backing array of this buffer. Only the first
+     * <code>size() * 2</code> values are in use and the array is
+     * replaced when the buffer grows.
+     * @return              the packed x, y pairs
+     */
+    public float[] getCoordinates() {
+        return coordinates;
+    }
+
+    /**
+     * @return              a new array with exactly the packed x, y
+     *                      pairs of this buffer
+     */
+    public float[] toArray() {
+        return Arrays.copyOf(coordinates, size * 2);
+    }
+
+    /**
+     * Writes the vectors of this buffer into a double precision
+     * buffer, replacing its contents.
+     * @param out           the buffer to write to
+     */
+    public void toVectorBuffer(VectorBuffer out) {
+        out.clear();
+        out.ensureCapacity(size);
+        for (int i = 0; i < size; i++) {
+            out.add(coordinates[i * 2], coordinates[i * 2 + 1]);
+        }
+    }
+
+    /**
+     * @return              a new double precision buffer with the
+     *                      vectors of this buffer
+     */
+    public VectorBuffer toVectorBuffer() {
+        VectorBuffer result = new VectorBuffer(size);
+        toVectorBuffer(result);
+        return result;
+    }
+
+    /**
+     * @return              a new list with the vectors of this buffer
+     */
+    public List<Vector> toVectors() {
+        List<Vector> result = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            result.add(get(i));
+        }
+        return result;
+    }
+
+    /**
+     * @return              a new polygon made out of the vectors of
+     *                      this buffer
+     */
+    public FloatPolygon toPolygon() {
+        return new FloatPolygon(this);
+    }
+}
@@ -0,0 +1,477 @@
+package nl.pluizer.math2d;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.stream.IntStream;
+
+/**
+ * The KDTree class answers nearest neighbour, k-nearest neighbour and
+ * radius queries over a fixed set of vectors.
+ *
+ * The tree is stored implicitly: the vectors are reordered so that
+ * every range of them has its median in the middle, with the vectors
+ * on one side of the splitting line before it and the others after it.
+ * It is built by median selection in O(n log n), with large ranges
+ * split over all cores. All distances are compared squared.
+ *
+ * Queries never modify the tree, so any number of threads can query it
+ * at the same time as long as each uses its own {@link Neighbours}.
+ * Results refer to the vectors by their index in the input.
+ *
+ * @author Richard van Roy
+ */
+public class KDTree {
+
+    // Ranges smaller than this are built on the current thread.
+    private static final int PARALLEL_THRESHOLD = 1 << 14;
+
+    final private int size;
+
+    // Vectors in tree order, their input index and splitting axis.
+    final private double[] xs, ys;
+    final private int[] indices;
+    final private boolean[] splitX;
+
+    // Position in tree order of every input index.
+    final private int[] slots;
+
+    /**
+     * Builds a tree from packed x, y pairs.
+     * @param coordinates   the packed x, y pairs, not modified
+     * @param count         the number of vectors
+     */
+    public KDTree(double[] coordinates, int count) {
+        long start = Metrics.start();
+        this.size = count;
+        this.xs = new double[count];
+        this.ys = new double[count];
+        this.indices = new int[count];
+        this.splitX = new boolean[count];
+        for (int i = 0; i < count; i++) {
+            xs[i] = coordinates[i * 2];
+            ys[i] = coordinates[i * 2 + 1];
+            indices[i] = i;
+        }
+        Build root = new Build(0, count);
+        if (count >= PARALLEL_THRESHOLD) {
+            ForkJoinPool.commonPool().invoke(root);
+        } else {
+            root.compute();
+        }
+        this.slots = new int[count];
+        for (int i = 0; i < count; i++) {
+            slots[indices[i]] = i;
+        }
+        Metrics.record(Metrics.Operation.KD_TREE_BUILD, count, start);
+    }
+
+    /**
+     * Builds a tree from a buffer of vectors.
+     * @param vectors       the vectors
+     */
+    public KDTree(VectorBuffer vectors) {
+        this(vectors.getCoordinates(), vectors.size());
+    }
+
+    /**
+     * Builds a tree from a list of vectors.
+     * @param vectors       the vectors
+     */
+    public KDTree(List<Vector> vectors) {
+        this(new VectorBuffer(vectors));
+    }
+
+    /**
+     * @return              the number of vectors in this tree
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @param index         the input index of a vector
+     * @return              the vector at that index
+     */
+    public Vector get(int index) {
+        int slot = slots[index];
+        return new Vector(xs[slot], ys[slot]);
+    }
+
+    private final class Build extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        final private int lo, hi;
+
+        Build(int lo, int hi) {
+            this.lo = lo;
+            this.hi = hi;
+        }
+
+        @Override
+        protected void compute() {
+            int lo = this.lo, hi = this.hi;
+            while (hi - lo > 1) {
+                // Split along the axis in which the vectors spread most.
+                double minX = Double.POSITIVE_INFINITY, maxX = Double.NEGATIVE_INFINITY;
+                double minY = Double.POSITIVE_INFINITY, maxY = Double.NEGATIVE_INFINITY;
+                for (int i = lo; i < hi; i++) {
+                    minX = Math.min(minX, xs[i]);
+                    maxX = Math.max(maxX, xs[i]);
+                    minY = Math.min(minY, ys[i]);
+                    maxY = Math.max(maxY, ys[i]);
+                }
+                boolean byX = maxX - minX >= maxY - minY;
+                int mid = (lo + hi) >>> 1;
+                select(lo, hi - 1, mid, byX);
+                splitX[mid] = byX;
+                if (mid - lo >= PARALLEL_THRESHOLD) {
+                    invokeAll(new Build(lo, mid), new Build(mid + 1, hi));
+                    return;
+                }
+                new Build(lo, mid).compute();
+                lo = mid + 1;
+            }
+        }
+    }
+
+    /**
+     * Moves the vector that belongs at position k, when sorted by one
+     * axis, to k with all smaller ones before and larger ones after it.
+     */
+    private void select(int left, int right, int k, boolean byX) {
+        double[] keys = byX ? xs : ys;
+        while (right > left) {
+            // Median of three as pivot.
+            int m = (left + right) >>> 1;
+            if (keys[m] < keys[left]) {
+                swap(m, left);
+            }
+            if (keys[right] < keys[left]) {
+                swap(right, left);
+            }
+            if (keys[right] < keys[m]) {
+                swap(right, m);
+            }
+            double pivot = keys[m];
+            int i = left, j = right;
+            while (i <= j) {
+                while (keys[i] < pivot) {
+                    i++;
+                }
+                while (keys[j] > pivot) {
+                    j--;
+                }
+                if (i <= j) {
+                    swap(i++, j--);
+                }
+            }
+            if (k <= j) {
+                right = j;
+            } else if (k >= i) {
+                left = i;
+            } else {
+                return;
+            }
+        }
+    }
+
+    private void swap(int a, int b) {
+        double x = xs[a], y = ys[a];
+        int index = indices[a];
+        xs[a] = xs[b];
+        ys[a] = ys[b];
+        indices[a] = indices[b];
+        xs[b] = x;
+        ys[b] = y;
+        indices[b] = index;
+    }
+
+    /**
+     * Returns the index of the vector nearest to a position.
+     * @param x             the x value of the position
+     * @param y             the y value of the position
+     * @return              the input index of the nearest vector, or
+     *                      -1 if the tree is empty
+     */
+    public int nearest(double x, double y) {
+        Neighbours neighbours = new Neighbours(1);
+        nearest(x, y, 1, neighbours);
+        return neighbours.size() == 0 ? -1 : neighbours.getIndex(0);
+    }
+
+    /**
+     * Returns the index of the vector nearest to a position.
+     * @param vector        the position
+     * @return              the input index of the nearest vector, or
+     *                      -1 if the tree is empty
+     */
+    public int nearest(Vector vector) {
+        return nearest(vector.getX(), vector.getY());
+    }
+
+    /**
+     * Finds the k vectors nearest to a position. The neighbours are
+     * cleared first and hold the results sorted from near to far
+     * afterwards, so they can be reused for the next query.
+     * @param x             the x value of the position
+     * @param y             the y value of the position
+     * @param k             the number of vectors to find
+     * @param neighbours    the results
+     */
+    public void nearest(double x, double y, int k, Neighbours neighbours) {
+        long start = Metrics.start();
+        neighbours.reset(k);
+        search(0, size, x, y, -1, neighbours);
+        neighbours.sort();
+        Metrics.record(Metrics.Operation.KD_TREE_QUERY, size, start);
+    }
+
+    /**
+     * Finds all vectors within a radius of a position. The neighbours
+     * are cleared first and hold the results sorted from near to far
+     * afterwards.
+     * @param x             the x value of the position
+     * @param y             the y value of the position
+     * @param radius        the radius to search in
+     * @param neighbours    the results
+     */
+    public void radius(double x, double y, double radius, Neighbours neighbours) {
+        long start = Metrics.start();
+        neighbours.reset(Integer.MAX_VALUE);
+        radius(0, size, x, y, radius * radius, neighbours);
+        neighbours.sort();
+        Metrics.record(Metrics.Operation.KD_TREE_QUERY, size, start);
+    }
+
+    /**
+     * Returns the two (different) vectors closest to each other. Every
+     * vector looks for its nearest neighbour, in parallel.
+     * @return              a new array with the input indices of both
+     *                      vectors, or null if there are less than two
+     */
+    public int[] closestPair() {
+        if (size < 2) {
+            return null;
+        }
+        double[] distances = new double[size];
+        int[] partners = new int[size];
+        ThreadLocal<Neighbours> local = ThreadLocal.withInitial(() -> new Neighbours(1));
+        IntStream.range(0, size).parallel().forEach(i -> {
+            Neighbours neighbours = local.get();
+            neighbours.reset(1);
+            search(0, size, xs[i], ys[i], i, neighbours);
+            distances[i] = neighbours.getDistanceSquared(0);
+            partners[i] = neighbours.getIndex(0);
+        });
+        int best = 0;
+        for (int i = 1; i < size; i++) {
+            if (distances[i] < distances[best]) {
+                best = i;
+            }
+        }
+        return new int[] {indices[best], partners[best]};
+    }
+
+    /**
+     * Finds the k nearest other vectors of every vector, in parallel.
+     * The neighbours of the vector with input index i are written,
+     * from near to far, to out[i * k] up to out[i * k + k]. Unused
+     * entries, when there are not enough vectors, are set to -1.
+     * @param k             the number of neighbours per vector
+     * @param out           an array of at least size() * k values
+     */
+    public void allNearest(int k, int[] out) {
+        ThreadLocal<Neighbours> local = ThreadLocal.withInitial(() -> new Neighbours(k));
+        IntStream.range(0, size).parallel().forEach(i -> {
+            Neighbours neighbours = local.get();
+            neighbours.reset(k);
+            search(0, size, xs[i], ys[i], i, neighbours);
+            neighbours.sort();
+            int offset = indices[i] * k;
+            for (int j = 0; j < k; j++) {
+                out[offset + j] = j < neighbours.size() ? neighbours.getIndex(j) : -1;
+            }
+        });
+    }
+
+    private void search(int lo, int hi, double x, double y, int exclude, Neighbours neighbours) {
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            double dX = x - xs[mid], dY = y - ys[mid];
+            if (mid != exclude) {
+                neighbours.offer(indices[mid], dX * dX + dY * dY);
+            }
+            double diff = splitX[mid] ? dX : dY;
+            // Search the side of the query first, the other one only if
+            // the splitting line is nearer than the worst result.
+            int nearLo = diff < 0 ? lo : mid + 1, nearHi = diff < 0 ? mid : hi;
+            int farLo = diff < 0 ? mid + 1 : lo, farHi = diff < 0 ? hi : mid;
+            search(nearLo, nearHi, x, y, exclude, neighbours);
+            if (diff * diff >= neighbours.worst()) {
+                return;
+            }
+            lo = farLo;
+            hi = farHi;
+        }
+    }
+
+    private void radius(int lo, int hi, double x, double y, double radius2, Neighbours neighbours) {
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            double dX = x - xs[mid], dY = y - ys[mid];
+            double d2 = dX * dX + dY * dY;
+            if (d2 <= radius2) {
+                neighbours.add(indices[mid], d2);
+            }
+            double diff = splitX[mid] ? dX : dY;
+            if (diff * diff > radius2) {
+                // Only the side of the query can hold results.
+                if (diff < 0) {
+                    hi = mid;
+                } else {
+                    lo = mid + 1;
+                }
+                continue;
+            }
+            radius(lo, mid, x, y, radius2, neighbours);
+            lo = mid + 1;
+        }
+    }
+
+    /**
+     * The Neighbours class holds the results of a query, the input
+     * indices of the vectors found and their squared distances. It is
+     * meant to be reused between queries to avoid allocating.
+     */
+    public static final class Neighbours {
+
+        private int[] indices;
+        private double[] distances;
+        private int size, limit;
+
+        /**
+         * Creates a result holder.
+         * @param capacity  the number of results it holds before it
+         *                  has to grow
+         */
+        public Neighbours(int capacity) {
+            indices = new int[Math.max(1, capacity)];
+            distances = new double[Math.max(1, capacity)];
+        }
+
+        /**
+         * @return          the number of results
+         */
+        public int size() {
+            return size;
+        }
+
+        /**
+         * @param i         the rank of the result, 0 is the nearest
+         * @return          the input index of the vector
+         */
+        public int getIndex(int i) {
+            return indices[i];
+        }
+
+        /**
+         * @param i         the rank of the result, 0 is the nearest
+         * @return          the squared distance to the vector
+         */
+        public double getDistanceSquared(int i) {
+            return distances[i];
+        }
+
+        void reset(int limit) {
+            this.size = 0;
+            this.limit = limit;
+            if (limit != Integer.MAX_VALUE && limit > indices.length) {
+                indices = new int[limit];
+                distances = new double[limit];
+            }
+        }
+
+        /**
+         * The squared distance a vector must beat to be a result.
+         */
+        double worst() {
+            return size < limit ? Double.POSITIVE_INFINITY : distances[0];
+        }
+
+        /**
+         * Keeps the nearest results in a max-heap on distance.
+         */
+        void offer(int index, double distance) {
+            if (size < limit) {
+                int i = size++;
+                while (i > 0) {
+                    int parent = (i - 1) >>> 1;
+                    if (distances[parent] >= distance) {
+                        break;
+                    }
+                    indices[i] = indices[parent];
+                    distances[i] = distances[parent];
+                    i = parent;
+                }
+                indices[i] = index;
+                distances[i] = distance;
+            } else if (distance < distances[0]) {
+                siftDown(0, size, index, distance);
+            }
+        }
+
+        void add(int index, double distance) {
+            if (size == indices.length) {
+                indices = Arrays.copyOf(indices, size * 2);
+                distances = Arrays.copyOf(distances, size * 2);
+            }
+            indices[size] = index;
+            distances[size] = distance;
+            size++;
+        }
+
+        /**
+         * Sorts the results from near to far with an in place heap
+         * sort, so sorting never allocates.
+         */
+        void sort() {
+            for (int i = size / 2 - 1; i >= 0; i--) {
+                siftDown(i, size, indices[i], distances[i]);
+            }
+            for (int end = size - 1; end > 0; end--) {
+                int index = indices[end];
+                double distance = distances[end];
+                indices[end] = indices[0];
+                distances[end] = distances[0];
+                siftDown(0, end, index, distance);
+            }
+        }
+
+        /**
+         * Places a result at i of the max-heap in 0..end, moving it
+         * down past larger children.
+         */
+        private void siftDown(int i, int end, int index, double distance) {
+            while (true) {
+                int child = i * 2 + 1;
+                if (child >= end) {
+                    break;
+                }
+                if (child + 1 < end && distances[child + 1] > distances[child]) {
+                    child++;
+                }
+                if (distances[child] <= distance) {
+                    break;
+                }
+                indices[i] = indices[child];
+                distances[i] = distances[child];
+                i = child;
+            }
+            indices[i] = index;
+            distances[i] = distance;
+        }
+    }
+}
@@ -0,0 +1,191 @@
+package nl.pluizer.math2d;
+
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * The MassProperties class holds the area, centroid and moment of
+ * inertia of a shape, as needed to simulate it as a rigid body.
+ *
+ * The moment of inertia is taken around the centroid, for a density of
+ * one, so it has to be multiplied by the density (or by the mass
+ * divided by the area) of the body. Every shape class and Polygon has
+ * a massProperties() method. Polygon and Triangle compute theirs once
+ * and keep them, see {@link Polygon#massProperties()}.
+ *
+ * @author Richard van Roy
+ */
+public class MassProperties {
+
+    // Lists with more polygons than this are computed on all cores.
+    private static final int PARALLEL_THRESHOLD = 256;
+
+    final private double area;
+    final private double centroidX, centroidY;
+    final private double inertia;
+
+    MassProperties(double area, double centroidX, double centroidY, double inertia) {
+        this.area = area;
+        this.centroidX = centroidX;
+        this.centroidY = centroidY;
+        this.inertia = inertia;
+    }
+
+    /**
+     * @return              the area of the shape
+     */
+    public double getArea() {
+        return area;
+    }
+
+    /**
+     * @return              a new vector with the centroid (centre of
+     *                      mass) of the shape
+     */
+    public Vector getCentroid() {
+        return new Vector(centroidX, centroidY);
+    }
+
+    /**
+     * @return              the x value of the centroid
+     */
+    public double getCentroidX() {
+        return centroidX;
+    }
+
+    /**
+     * @return              the y value of the centroid
+     */
+    public double getCentroidY() {
+        return centroidY;
+    }
+
+    /**
+     * @return              the moment of inertia around the centroid,
+     *                      for a density of one
+     */
+    public double getInertia() {
+        return inertia;
+    }
+
+    /**
+     * Returns the moment of inertia around the centroid for a body of
+     * a certain mass.
+     * @param mass          the mass of the body
+     * @return              the moment of inertia
+     */
+    public double getInertia(double mass) {
+        return area == 0 ? 0 : inertia * mass / area;
+    }
+
+    static MassProperties circle(double centreX, double centreY, double radius) {
+        double area = Math.PI * radius * radius;
+        return new MassProperties(area, centreX, centreY, area * radius * radius * 0.5d);
+    }
+
+    static MassProperties rectangle(double centreX, double centreY, double width, double height) {
+        double area = width * height;
+        return new MassProperties(area, centreX, centreY,
+                area * (width * width + height * height) / 12.0d);
+    }
+
+    static MassProperties polygon(double[] coordinates, int from, int to) {
+        double[] result = new double[4];
+        polygon(coordinates, from, to, result);
+        return new MassProperties(result[0], result[1], result[2], result[3]);
+    }
+
+    /**
+     * Computes the properties of the polygon made of the vectors from
+     * up to to, in either order, as area, centroid x, y and inertia.
+     */
+    private static void polygon(double[] c, int from, int to, double[] out) {
+        int n = to - from;
+        if (n == 0) {
+            out[0] = out[1] = out[2] = out[3] = 0;
+            return;
+        }
+        // Relative to the first vector, to keep the products small.
+        double oX = c[from * 2], oY = c[from * 2 + 1];
+        double area = 0, sumX = 0, sumY = 0, second = 0;
+        double meanX = 0, meanY = 0;
+        double pX = c[to * 2 - 2] - oX, pY = c[to * 2 - 1] - oY;
+        for (int i = from; i < to; i++) {
+            double x = c[i * 2] - oX, y = c[i * 2 + 1] - oY;
+            double cross = pX * y - x * pY;
+            area += cross;
+            sumX += (pX + x) * cross;
+            sumY += (pY + y) * cross;
+            second += (pX * pX + pX * x + x * x + pY * pY + pY * y + y * y) * cross;
+            meanX += x;
+            meanY += y;
+            pX = x;
+            pY = y;
+        }
+        area *= 0.5d;
+        if (area == 0) {
+            // A polygon without area has its centroid at its mean.
+            out[0] = 0;
+            out[1] = oX + meanX / n;
+            out[2] = oY + meanY / n;
+            out[3] = 0;
+            return;
+        }
+        double cX = sumX / (6.0d * area), cY = sumY / (6.0d * area);
+        // Inertia around the first vector, moved to the centroid. The
+        // signs cancel for clockwise polygons.
+        double inertia = second / 12.0d - area * (cX * cX + cY * cY);
+        out[0] = Math.abs(area);
+        out[1] = oX + cX;
+        out[2] = oY + cY;
+        out[3] = Math.abs(inertia);
+    }
+
+    /**
+     * Computes the properties of many polygons stored in one packed
+     * array. Polygon i is made of the vectors from offsets[i] up to
+     * offsets[i + 1]. Large inputs are split over all cores.
+     * @param coordinates   the packed x, y pairs of all polygons
+     * @param offsets       count + 1 vector offsets
+     * @param count         the number of polygons
+     * @param areas         receives the area of every polygon
+     * @param centroids     receives the packed x, y centroids
+     * @param inertias      receives the moment of inertia of every
+     *                      polygon, for a density of one
+     */
+    public static void compute(double[] coordinates, int[] offsets, int count,
+                               double[] areas, double[] centroids, double[] inertias) {
+        IntStream range = IntStream.range(0, count);
+        ThreadLocal<double[]> local = ThreadLocal.withInitial(() -> new double[4]);
+        (count >= PARALLEL_THRESHOLD ? range.parallel() : range).forEach(i -> {
+            double[] result = local.get();
+            polygon(coordinates, offsets[i], offsets[i + 1], result);
+            areas[i] = result[0];
+            centroids[i * 2] = result[1];
+            centroids[i * 2 + 1] = result[2];
+            inertias[i] = result[3];
+        });
+    }
+
+    /**
+     * Computes the properties of a list of polygons into arrays. The
+     * properties are also kept by the polygons. Large lists are split
+     * over all cores.
+     * @param polygons      the polygons
+     * @param areas         receives the area of every polygon
+     * @param centroids     receives the packed x, y centroids
+     * @param inertias      receives the moment of inertia of every
+     *                      polygon, for a density of one
+     */
+    public static void compute(List<Polygon> polygons,
+                               double[] areas, double[] centroids, double[] inertias) {
+        IntStream range = IntStream.range(0, polygons.size());
+        (polygons.size() >= PARALLEL_THRESHOLD ? range.parallel() : range).forEach(i -> {
+            MassProperties properties = polygons.get(i).massProperties();
+            areas[i] = properties.area;
+            centroids[i * 2] = properties.centroidX;
+            centroids[i * 2 + 1] = properties.centroidY;
+            inertias[i] = properties.inertia;
+        });
+    }
+}
@@ -0,0 +1,212 @@
+package nl.pluizer.math2d;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The Metrics class counts the calls to the expensive operations of
+ * this library and how long they take, by the size of their input.
+ *
+ * Metrics are off unless the JVM is started with
+ * <code>-Dnl.pluizer.math2d.metrics=true</code>. The switch is read
+ * once into a static final field, so when it is off the JIT removes
+ * the instrumentation completely.
+ *
+ * When on, every operation is counted per size bucket, where bucket b
+ * holds the inputs of 2^(b-1) up to 2^b vectors (bucket 0 is empty
+ * input). Per bucket there is a histogram of latencies, in buckets of
+ * powers of two nanoseconds. The counters are striped, so threads
+ * calling the same operation hardly contend. Operations on at least
+ * <code>nl.pluizer.math2d.metrics.eventThreshold</code> vectors (10000
+ * by default) also emit a Flight Recorder event named
+ * <code>nl.pluizer.math2d.Operation</code>, when the JVM has one.
+ * The event class needs Java 11 to compile, so a build on Java 8
+ * leaves it out and is found here only by name.
+ *
+ * @author Richard van Roy
+ */
+public final class Metrics {
+
+    /**
+     * True if metrics are being recorded.
+     */
+    public static final boolean ENABLED = Boolean.getBoolean("nl.pluizer.math2d.metrics");
+
+    /**
+     * The number of size buckets per operation.
+     */
+    public static final int SIZE_BUCKETS = 32;
+
+    /**
+     * The number of latency buckets per size bucket.
+     */
+    public static final int LATENCY_BUCKETS = 40;
+
+    /**
+     * The operations that are measured.
+     */
+    public enum Operation {
+        CONVEX_HULL,
+        ENCLOSING_CIRCLE,
+        CLIP,
+        BOOLEAN_OPERATION,
+        MINKOWSKI_SUM,
+        KD_TREE_BUILD,
+        KD_TREE_QUERY,
+        DELAUNAY,
+        SEGMENT_INTERSECTION,
+        BOUNDS,
+        SEGMENT_QUERY
+    }
+
+    private Metrics() {
+    }
+
+    /**
+     * Returns the time an operation starts.
+     */
+    static long start() {
+        return ENABLED ? System.nanoTime() : 0L;
+    }
+
+    /**
+     * Records an operation that started at start.
+     */
+    static void record(Operation operation, int size, long start) {
+        if (ENABLED) {
+            Recorder.record(operation, size, System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Returns the size bucket of an input size.
+     * @param size          the number of vectors
+     * @return              the size bucket
+     */
+    public static int sizeBucket(int size) {
+        return 32 - Integer.numberOfLeadingZeros(Math.max(0, size));
+    }
+
+    /**
+     * Returns how often an operation was called.
+     * @param operation     the operation
+     * @param sizeBucket    the size bucket of the inputs
+     * @return              the number of calls
+     */
+    public static long count(Operation operation, int sizeBucket) {
+        return ENABLED ? Recorder.counts[Recorder.slot(operation, sizeBucket)].sum() : 0L;
+    }
+
+    /**
+     * Returns the total time spent in an operation.
+     * @param operation     the operation
+     * @param sizeBucket    the size bucket of the inputs
+     * @return              the total time in nanoseconds
+     */
+    public static long totalNanos(Operation operation, int sizeBucket) {
+        return ENABLED ? Recorder.nanos[Recorder.slot(operation, sizeBucket)].sum() : 0L;
+    }
+
+    /**
+     * Returns the latency histogram of an operation. Entry i counts
+     * the calls that took 2^(i-1) up to 2^i nanoseconds.
+     * @param operation     the operation
+     * @param sizeBucket    the size bucket of the inputs
+     * @return              a new array of LATENCY_BUCKETS counts
+     */
+    public static long[] latencies(Operation operation, int sizeBucket) {
+        long[] result = new long[LATENCY_BUCKETS];
+        if (ENABLED) {
+            int offset = Recorder.slot(operation, sizeBucket) * LATENCY_BUCKETS;
+            for (int i = 0; i < LATENCY_BUCKETS; i++) {
+                result[i] = Recorder.latencies[offset + i].sum();
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Sets all counters back to zero.
+     */
+    public static void reset() {
+        if (ENABLED) {
+            Recorder.reset();
+        }
+    }
+
+    /**
+     * Holds the counters, only loaded when metrics are enabled.
+     */
+    private static final class Recorder {
+
+        static final int EVENT_THRESHOLD = Integer.getInteger(
+                "nl.pluizer.math2d.metrics.eventThreshold", 10000);
+
+        static final MethodHandle EVENT = event();
+
+        static final int SLOTS = Operation.values().length * SIZE_BUCKETS;
+
+        static final LongAdder[] counts = adders(SLOTS);
+        static final LongAdder[] nanos = adders(SLOTS);
+        static final LongAdder[] latencies = adders(SLOTS * LATENCY_BUCKETS);
+
+        private static LongAdder[] adders(int n) {
+            LongAdder[] result = new LongAdder[n];
+            for (int i = 0; i < n; i++) {
+                result[i] = new LongAdder();
+            }
+            return result;
+        }
+
+        /**
+         * Returns OperationEvent.emit, or null if the event was not
+         * built or the JVM has no Flight Recorder.
+         */
+        private static MethodHandle event() {
+            try {
+                Class<?> type = Class.forName("nl.pluizer.math2d.OperationEvent",
+                        true, Metrics.class.getClassLoader());
+                return MethodHandles.lookup().findStatic(type, "emit",
+                        MethodType.methodType(void.class, Operation.class, int.class, long.class));
+            } catch (ReflectiveOperationException | LinkageError e) {
+                return null;
+            }
+        }
+
+        static int slot(Operation operation, int sizeBucket) {
+            return operation.ordinal() * SIZE_BUCKETS + sizeBucket;
+        }
+
+        static void record(Operation operation, int size, long elapsed) {
+            int slot = slot(operation, sizeBucket(size));
+            counts[slot].increment();
+            nanos[slot].add(elapsed);
+            int latency = Math.min(LATENCY_BUCKETS - 1,
+                    64 - Long.numberOfLeadingZeros(Math.max(0L, elapsed)));
+            latencies[slot * LATENCY_BUCKETS + latency].increment();
+            if (EVENT != null && size >= EVENT_THRESHOLD) {
+                try {
+                    EVENT.invokeExact(operation, size, elapsed);
+                } catch (RuntimeException | Error e) {
+                    throw e;
+                } catch (Throwable e) {
+                    throw new IllegalStateException(e);
+                }
+            }
+        }
+
+        static void reset() {
+            for (LongAdder adder : counts) {
+                adder.reset();
+            }
+            for (LongAdder adder : nanos) {
+                adder.reset();
+            }
+            for (LongAdder adder : latencies) {
+                adder.reset();
+            }
+        }
+    }
+}
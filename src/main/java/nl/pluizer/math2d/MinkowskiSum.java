@@ -0,0 +1,253 @@
+package nl.pluizer.math2d;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The MinkowskiSum class inflates convex polygons by a convex shape.
+ *
+ * The shape is prepared once, its vertices are put in counter-clockwise
+ * order starting from the lowest one, so its edges are sorted by angle.
+ * Every sum then only has to merge the edges of both polygons, which
+ * takes O(n+m) for polygons with n and m vertices. The same instance
+ * can be used to inflate a whole list of obstacles.
+ *
+ * Instances keep a scratch buffer between calls and are not thread
+ * safe, use one instance per thread.
+ *
+ * @author Richard van Roy
+ */
+public class MinkowskiSum {
+
+    final private VectorBuffer shape;
+
+    private VectorBuffer reflected;
+
+    private final VectorBuffer scratch = new VectorBuffer();
+
+    /**
+     * Prepares a convex polygon, defined in clockwise or
+     * counter-clockwise order.
+     * @param convex        the convex polygon to inflate by
+     */
+    public MinkowskiSum(Polygon convex) {
+        this(new VectorBuffer(convex));
+    }
+
+    /**
+     * Prepares a convex polygon, defined in clockwise or
+     * counter-clockwise order.
+     * @param convex        the vectors of the convex polygon to
+     *                      inflate by
+     */
+    public MinkowskiSum(VectorBuffer convex) {
+        this.shape = new VectorBuffer(convex.size());
+        normalise(convex, shape);
+        if (shape.size() == 0) {
+            throw new IllegalArgumentException("Need at least one vector.");
+        }
+    }
+
+    /**
+     * Prepares a rectangle.
+     * @param rectangle     the rectangle to inflate by
+     */
+    public MinkowskiSum(Rectangle rectangle) {
+        this(new Polygon(rectangle));
+    }
+
+    /**
+     * Prepares a circle. A circle has no corners, so it is replaced by
+     * the regular polygon with a number of segments that just encloses
+     * it. The results are therefore never smaller than the exact sum.
+     * @param circle        the circle to inflate by
+     * @param segments      the number of segments, at least 3
+     */
+    public MinkowskiSum(Circle circle, int segments) {
+        this(circumscribe(circle, segments));
+    }
+
+    private static VectorBuffer circumscribe(Circle circle, int segments) {
+        if (segments < 3) {
+            throw new IllegalArgumentException("Need at least three segments.");
+        }
+        double r = circle.getRadius() / Math.cos(Math.PI / segments);
+        double cX = circle.getCentre().getX(), cY = circle.getCentre().getY();
+        VectorBuffer result = new VectorBuffer(segments);
+        // Start half a segment in, so for a multiple of four segments
+        // the sides face the axes and axis aligned walls grow by
+        // exactly the radius.
+        for (int i = 0; i < segments; i++) {
+            double a = (2 * Math.PI * (i + 0.5d)) / segments;
+            result.add(cX + r * Math.cos(a), cY + r * Math.sin(a));
+        }
+        return result;
+    }
+
+    /**
+     * Returns the Minkowski sum of a convex polygon and the prepared
+     * shape.
+     * @param convex        the convex polygon
+     * @return              a new convex polygon, counter-clockwise
+     */
+    public Polygon sum(Polygon convex) {
+        VectorBuffer out = new VectorBuffer(convex.getVectors().size() + shape.size());
+        sum(new VectorBuffer(convex), out);
+        return out.toPolygon();
+    }
+
+    /**
+     * Returns the Minkowski difference of a convex polygon and the
+     * prepared shape, which is the sum with the shape mirrored through
+     * the origin. A moving shape collides with the polygon when its
+     * position lies inside this difference.
+     * @param convex        the convex polygon
+     * @return              a new convex polygon, counter-clockwise
+     */
+    public Polygon difference(Polygon convex) {
+        VectorBuffer out = new VectorBuffer(convex.getVectors().size() + shape.size());
+        difference(new VectorBuffer(convex), out);
+        return out.toPolygon();
+    }
+
+    /**
+     * Writes the Minkowski sum of a convex polygon and the prepared
+     * shape into a buffer.
+     * @param convex        the vectors of the convex polygon
+     * @param out           the buffer to write the counter-clockwise
+     *                      result to, must not be the same
+     *                      buffer as convex
+     */
+    public void sum(VectorBuffer convex, VectorBuffer out) {
+        merge(convex, shape, out);
+    }
+
+    /**
+     * Writes the Minkowski difference of a convex polygon and the
+     * prepared shape into a buffer.
+     * @param convex        the vectors of the convex polygon
+     * @param out           the buffer to write the counter-clockwise
+     *                      result to, must not be the same
+     *                      buffer as convex
+     */
+    public void difference(VectorBuffer convex, VectorBuffer out) {
+        if (reflected == null) {
+            VectorBuffer mirrored = new VectorBuffer(shape.size());
+            for (int i = 0; i < shape.size(); i++) {
+                mirrored.add(-shape.getX(i), -shape.getY(i));
+            }
+            reflected = new VectorBuffer(shape.size());
+            normalise(mirrored, reflected);
+        }
+        merge(convex, reflected, out);
+    }
+
+    /**
+     * Inflates every convex polygon of a list by the prepared shape.
+     * @param obstacles     the convex polygons to inflate
+     * @return              a new list with the inflated polygons
+     */
+    public List<Polygon> inflate(List<Polygon> obstacles) {
+        List<Polygon> result = new ArrayList<>(obstacles.size());
+        for (Polygon obstacle : obstacles) {
+            result.add(sum(obstacle));
+        }
+        return result;
+    }
+
+    /**
+     * Inflates every convex polygon of a list by the prepared shape.
+     * The results are written to the buffers of out at the same index,
+     * reusing the buffers already in the list and adding new ones when
+     * needed.
+     * @param obstacles     the vectors of the convex polygons
+     * @param out           the buffers to write the results to
+     */
+    public void inflate(List<VectorBuffer> obstacles, List<VectorBuffer> out) {
+        for (int i = 0; i < obstacles.size(); i++) {
+            if (i == out.size()) {
+                out.add(new VectorBuffer(obstacles.get(i).size() + shape.size()));
+            }
+            sum(obstacles.get(i), out.get(i));
+        }
+    }
+
+    /**
+     * Merges the edges of a convex polygon with those of a normalised
+     * one, both ordered by angle.
+     */
+    private void merge(VectorBuffer convex, VectorBuffer other, VectorBuffer out) {
+        long start = Metrics.start();
+        mergeEdges(convex, other, out);
+        Metrics.record(Metrics.Operation.MINKOWSKI_SUM, convex.size() + other.size(), start);
+    }
+
+    private void mergeEdges(VectorBuffer convex, VectorBuffer other, VectorBuffer out) {
+        out.clear();
+        VectorBuffer p = scratch;
+        normalise(convex, p);
+        int n = p.size(), m = other.size();
+        if (n == 0) {
+            return;
+        }
+        out.ensureCapacity(n + m);
+        int i = 0, j = 0;
+        while (i < n || j < m) {
+            out.add(p.getX(i % n) + other.getX(j % m), p.getY(i % n) + other.getY(j % m));
+            if (i == n) {
+                j++;
+                continue;
+            }
+            if (j == m) {
+                i++;
+                continue;
+            }
+            int i1 = (i + 1) % n, j1 = (j + 1) % m;
+            double aX = p.getX(i1) - p.getX(i % n), aY = p.getY(i1) - p.getY(i % n);
+            double bX = other.getX(j1) - other.getX(j % m), bY = other.getY(j1) - other.getY(j % m);
+            double cross = aX * bY - aY * bX;
+            if (cross == 0 && aX * bX + aY * bY < 0) {
+                // Opposite edges, the one pointing up comes first.
+                cross = aY > 0 || (aY == 0 && aX > 0) ? 1 : -1;
+            }
+            if (cross > 0) {
+                i++;
+            } else if (cross < 0) {
+                j++;
+            } else {
+                // Parallel edges become a single edge.
+                i++;
+                j++;
+            }
+        }
+    }
+
+    /**
+     * Writes a convex polygon counter-clockwise, starting from its
+     * lowest (and then leftmost) vector, without repeated vectors.
+     */
+    private static void normalise(VectorBuffer convex, VectorBuffer out) {
+        out.clear();
+        int n = convex.size();
+        double area = 0;
+        int lowest = 0;
+        for (int i = 0, j = n - 1; i < n; j = i++) {
+            area += convex.getX(j) * convex.getY(i) - convex.getX(i) * convex.getY(j);
+            double y = convex.getY(i), lowY = convex.getY(lowest);
+            if (y < lowY || (y == lowY && convex.getX(i) < convex.getX(lowest))) {
+                lowest = i;
+            }
+        }
+        int step = area < 0 ? n - 1 : 1;
+        for (int k = 0, i = lowest; k < n; k++, i = (i + step) % n) {
+            double x = convex.getX(i), y = convex.getY(i);
+            int last = out.size() - 1;
+            boolean repeated = last >= 0 && out.getX(last) == x && out.getY(last) == y;
+            // The polygon may be closed by repeating the first vector.
+            boolean closing = k > 0 && k == n - 1 && out.getX(0) == x && out.getY(0) == y;
+            if (!repeated && !closing) {
+                out.add(x, y);
+            }
+        }
+    }
+}
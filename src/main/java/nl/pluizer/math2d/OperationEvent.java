@@ -0,0 +1,43 @@
+package nl.pluizer.math2d;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+ * Flight Recorder event for an expensive call, emitted by
+ * {@link Metrics}. This class is only loaded on a JVM with a Flight
+ * Recorder, and is left out of builds on Java 8, which has no
+ * jdk.jfr to compile against.
+ *
+ * @author Richard van Roy
+ */
+@Name("nl.pluizer.math2d.Operation")
+@Label("Geometry Operation")
+@Category("Geometry")
+@Description("A geometry operation on a large input")
+final class OperationEvent extends Event {
+
+    @Label("Operation")
+    String operation;
+
+    @Label("Input Size")
+    int size;
+
+    @Label("Elapsed")
+    @Timespan(Timespan.NANOSECONDS)
+    long elapsed;
+
+    static void emit(Metrics.Operation operation, int size, long elapsed) {
+        OperationEvent event = new OperationEvent();
+        if (event.shouldCommit()) {
+            event.operation = operation.name();
+            event.size = size;
+            event.elapsed = elapsed;
+            event.commit();
+        }
+    }
+}
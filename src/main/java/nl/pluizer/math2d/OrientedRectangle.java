@@ -0,0 +1,179 @@
+package nl.pluizer.math2d;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The OrientedRectangle class is used to define a rectangle that can
+ * be rotated, also known as an oriented bounding box.
+ *
+ * @author Richard van Roy
+ */
+public class OrientedRectangle implements Shape {
+
+    final private double centreX, centreY;
+
+    // Unit vector along the width of the rectangle.
+    final private double axisX, axisY;
+
+    final private double halfWidth, halfHeight;
+
+    OrientedRectangle(double centreX, double centreY, double axisX, double axisY,
+                      double halfWidth, double halfHeight) {
+        this.centreX = centreX;
+        this.centreY = centreY;
+        this.axisX = axisX;
+        this.axisY = axisY;
+        this.halfWidth = halfWidth;
+        this.halfHeight = halfHeight;
+    }
+
+    /**
+     * Creates a rectangle around a centre, rotated by an angle.
+     * @param centre        the centre of the rectangle
+     * @param angle         the angle between the x-axis and the width
+     *                      of the rectangle
+     * @param width         the width of the rectangle
+     * @param height        the height of the rectangle
+     */
+    public OrientedRectangle(Vector centre, Angle angle, double width, double height) {
+        this(centre.getX(), centre.getY(),
+                Math.cos(angle.getRadian()), Math.sin(angle.getRadian()),
+                width * 0.5d, height * 0.5d);
+    }
+
+    /**
+     * Creates an unrotated oriented rectangle from a rectangle.
+     * @param rectangle     the rectangle to copy
+     */
+    public OrientedRectangle(Rectangle rectangle) {
+        this(rectangle.centre(), Angle.fromRadian(0), rectangle.getWidth(), rectangle.getHeight());
+    }
+
+    /**
+     * @return              the centre of this rectangle
+     */
+    public Vector getCentre() {
+        return new Vector(centreX, centreY);
+    }
+
+    /**
+     * @return              the <i>unit length</i> vector along the
+     *                      width of this rectangle
+     */
+    public Vector getAxis() {
+        return new Vector(axisX, axisY);
+    }
+
+    /**
+     * @return              the angle between the x-axis and the width
+     *                      of this rectangle
+     */
+    public Angle getAngle() {
+        return Angle.fromRadian(Math.atan2(axisY, axisX));
+    }
+
+    /**
+     * Returns the total width of this rectangle.
+     * @return              the width of this rectangle
+     */
+    @Override
+    public double getWidth() {
+        return halfWidth * 2;
+    }
+
+    /**
+     * Returns the total height of this rectangle.
+     * @return              the height of this rectangle
+     */
+    @Override
+    public double getHeight() {
+        return halfHeight * 2;
+    }
+
+    /**
+     * Returns the total area of this rectangle.
+     * @return              the area of this rectangle
+     */
+    public double area() {
+        return halfWidth * halfHeight * 4;
+    }
+
+    /**
+     * Returns the area, centroid and moment of inertia of this
+     * rectangle.
+     * @return              the mass properties of this rectangle
+     */
+    public MassProperties massProperties() {
+        return MassProperties.rectangle(centreX, centreY, halfWidth * 2, halfHeight * 2);
+    }
+
+    /**
+     * Returns the corners of this rectangle in counter-clockwise order.
+     * @return              a new polygon of the corners
+     */
+    public Polygon getCorners() {
+        double wX = axisX * halfWidth, wY = axisY * halfWidth;
+        double hX = -axisY * halfHeight, hY = axisX * halfHeight;
+        List<Vector> vectors = new ArrayList<>(4);
+        vectors.add(new Vector(centreX - wX - hX, centreY - wY - hY));
+        vectors.add(new Vector(centreX + wX - hX, centreY + wY - hY));
+        vectors.add(new Vector(centreX + wX + hX, centreY + wY + hY));
+        vectors.add(new Vector(centreX - wX + hX, centreY - wY + hY));
+        return new Polygon(vectors);
+    }
+
+    /**
+     * Returns the smallest axis aligned rectangle that contains this
+     * rectangle.
+     * @return              a new rectangle
+     */
+    public Rectangle bounds() {
+        double extentX = Math.abs(axisX) * halfWidth + Math.abs(axisY) * halfHeight;
+        double extentY = Math.abs(axisY) * halfWidth + Math.abs(axisX) * halfHeight;
+        return Rectangle.fromBounds(centreX - extentX, centreY - extentY,
+                centreX + extentX, centreY + extentY);
+    }
+
+    /**
+     * Returns true if a vector lies inside this rectangle.
+     * @param vector        the vector
+     * @return              true if vector lies inside, false otherwise
+     */
+    public boolean contains(Vector vector) {
+        double dX = vector.getX() - centreX, dY = vector.getY() - centreY;
+        return Math.abs(dX * axisX + dY * axisY) <= halfWidth &&
+                Math.abs(dY * axisX - dX * axisY) <= halfHeight;
+    }
+
+    /**
+     * Returns true if an other oriented rectangle intersects this one,
+     * by testing the four axes of both rectangles for a separating
+     * axis.
+     * @param other         the other rectangle
+     * @return              true on intersection, false otherwise
+     */
+    public boolean intersects(OrientedRectangle other) {
+        double dX = other.centreX - centreX, dY = other.centreY - centreY;
+        // Rotation of the other's axes relative to this rectangle.
+        double c = axisX * other.axisX + axisY * other.axisY;
+        double s = axisX * other.axisY - axisY * other.axisX;
+        double absC = Math.abs(c), absS = Math.abs(s);
+        // Axes of this rectangle.
+        double dU = dX * axisX + dY * axisY;
+        double dV = dY * axisX - dX * axisY;
+        if (Math.abs(dU) > halfWidth + other.halfWidth * absC + other.halfHeight * absS) {
+            return false;
+        }
+        if (Math.abs(dV) > halfHeight + other.halfWidth * absS + other.halfHeight * absC) {
+            return false;
+        }
+        // Axes of the other rectangle.
+        double oU = dX * other.axisX + dY * other.axisY;
+        double oV = dY * other.axisX - dX * other.axisY;
+        if (Math.abs(oU) > other.halfWidth + halfWidth * absC + halfHeight * absS) {
+            return false;
+        }
+        return Math.abs(oV) <= other.halfHeight + halfWidth * absS + halfHeight * absC;
+    }
+}
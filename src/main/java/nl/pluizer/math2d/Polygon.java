@@ -6,11 +6,27 @@ import java.util.*;
  * The Polygon class provides many immutable operations for
  * working with polygons.
  *
+ * Moving and rotating a polygon returns a view of the polygon it came
+ * from, which only records the transformation. Chained views, such as
+ * {@code p.subtract(pivot).rotate(angle).add(position)}, fuse their
+ * transformations into one, so the vectors are computed in a single
+ * pass when they are first read, and then kept.
+ *
  * @author Richard van Roy
  */
 public class Polygon {
 
-    final private List<Vector> vectors;
+    // The polygon this is a view of and the transformation of its
+    // vectors, x' = t[0] x + t[1] y + t[4] and y' = t[2] x + t[3] y + t[5].
+    // Both are null for plain polygons.
+    final private Polygon source;
+    final private double[] transform;
+
+    // Computed on first use for views, see getVectors().
+    private volatile List<Vector> vectors;
+
+    // Computed on first use, see massProperties().
+    private MassProperties massProperties;
 
     /**
      * Creates a new polygon from a rectangle.
@@ -21,6 +37,8 @@ public class Polygon {
         double right  = rectangle.getBottomRight().getX();
         double bottom = rectangle.getBottomRight().getY();
         double top    = rectangle.getTopLeft().getY();
+        source = null;
+        transform = null;
         vectors = new ArrayList<>();
         vectors.add(new Vector(left , top));
         vectors.add(new Vector(left , bottom));
@@ -34,6 +52,8 @@ public class Polygon {
      *                      out of
      */
     public Polygon(List<Vector> vectors) {
+        this.source = null;
+        this.transform = null;
         this.vectors = new ArrayList<>(vectors);
     }
 
@@ -42,39 +62,43 @@ public class Polygon {
      * @param polygon       the polygon to copy
      */
     public Polygon(Polygon polygon) {
-        this(polygon.vectors);
+        this(polygon.getVectors());
     }
 
-    private double clockwise(Vector o, Vector a, Vector b) {
-        double pA = (a.getX() - o.getX()) * (b.getY() - o.getY());
-        double pB = (a.getY() - o.getY()) * (b.getX() - o.getX());
-        return pA - pB;
+    private Polygon(Polygon source, double[] transform) {
+        this.source = source;
+        this.transform = transform;
+    }
+
+    /**
+     * Positive if o, a and b turn counter-clockwise, negative if they
+     * turn clockwise and exactly zero if they are collinear.
+     */
+    private static double clockwise(Vector o, Vector a, Vector b) {
+        return Predicates.orient(o, a, b);
     }
 
     public Polygon convexHull() {
+        List<Vector> vectors = getVectors();
         // Can't make a non-convex with 3 points.
         if (vectors.size() <= 3) {
             return new Polygon(vectors);
         }
+        long start = Metrics.start();
         // Sort vectors by X, if there is a tie, sort them by Y...
         List<Vector> sortedVectors = new ArrayList<>(vectors);
         Collections.sort(sortedVectors, (v1, v2) -> {
-            if (v1.getX() < v2.getX()) {
-                return -1;
-            } else if (v1.getX() == v2.getX()) {
-                return v1.getY() < v2.getY() ? -1 : 1;
-            } else {
-                return 1;
-            }
+            int x = Double.compare(v1.getX(), v2.getX());
+            return x != 0 ? x : Double.compare(v1.getY(), v2.getY());
         });
         // Process the lower part ...
         List<Vector> lower = new ArrayList<>();
         sortedVectors.forEach((v) -> {
             // Remove the last vector, if the triangle from the last
-            // two and the current vector are clockwise.
+            // two and the current vector is clockwise (or flat).
             while (lower.size() >= 2 &&
-                    new Triangle(v, lower.get(lower.size() - 2),
-                            lower.get(lower.size() - 1)).clockwise()) {
+                    clockwise(lower.get(lower.size() - 2),
+                            lower.get(lower.size() - 1), v) <= 0) {
                 lower.remove(lower.size() - 1);
             }
             lower.add(v);
@@ -85,10 +109,10 @@ public class Polygon {
         Stack<Vector> upper = new Stack<>();
         reverseSorted.forEach((v) -> {
             // Remove the last vector, if the triangle from the last
-            // two and the current vector are clockwise.
+            // two and the current vector is clockwise (or flat).
             while (upper.size() >= 2 &&
-                    new Triangle(v, upper.get(upper.size()-2),
-                            upper.get(upper.size()-1)).clockwise()) {
+                    clockwise(upper.get(upper.size() - 2),
+                            upper.get(upper.size() - 1), v) <= 0) {
                 upper.remove(upper.size() - 1);
             }
             upper.add(v);
@@ -98,29 +122,43 @@ public class Polygon {
         upper.remove(upper.size() - 1);
         List<Vector> result = new ArrayList<>(lower);
         result.addAll(upper);
+        Metrics.record(Metrics.Operation.CONVEX_HULL, vectors.size(), start);
         return new Polygon(result);
     }
 
+    /**
+     * Returns a view of this polygon with a transformation applied after
+     * the ones it already has.
+     */
+    private Polygon transform(double m00, double m01, double m10, double m11,
+                              double x, double y) {
+        if (source == null) {
+            return new Polygon(this, new double[] {m00, m01, m10, m11, x, y});
+        }
+        double[] t = transform;
+        return new Polygon(source, new double[] {
+                m00 * t[0] + m01 * t[2], m00 * t[1] + m01 * t[3],
+                m10 * t[0] + m11 * t[2], m10 * t[1] + m11 * t[3],
+                m00 * t[4] + m01 * t[5] + x, m10 * t[4] + m11 * t[5] + y
+        });
+    }
+
     /**
      * Adds a vector to a polygon and returns the result.
      * @param vector        the vector to add
-     * @return              a new polygon as the result
+     * @return              a new polygon as the result, a view
      */
     public Polygon add(Vector vector) {
-        List<Vector> result = new ArrayList<>(vectors);
-        result.forEach((v) -> v.add(vector));
-        return new Polygon(result);
+        return transform(1, 0, 0, 1, vector.getX(), vector.getY());
     }
 
     /**
      * Subtracts a vector to a polygon and returns the result.
      * @param vector        the vector to subtract
-     * @return              a new polygon as the result
+     * @return              a new polygon as the result, a view
      */
     public Polygon subtract(Vector vector) {
-        List<Vector> result = new ArrayList<>(vectors);
-        result.forEach((v) -> v.subtract(vector));
-        return new Polygon(result);
+        return transform(1, 0, 0, 1, -vector.getX(), -vector.getY());
     }
 
     /**
@@ -128,22 +166,16 @@ public class Polygon {
      * origin (pivot).
      * @param angle         the angle to rotate the polygon
      * @param origin        the point of origin of the polygon
-     * @return              a new rotated polygon
+     * @return              a new rotated polygon, a view
      */
     public Polygon rotate(Angle angle, Vector origin) {
         double cA = Math.cos(angle.getRadian());
         double sA = Math.sin(angle.getRadian());
         double oX = origin.getX();
         double oY = origin.getY();
-        List<Vector> result = new ArrayList<>(vectors);
-        for (Vector v : vectors) {
-            double x = v.getX(), y = v.getY();
-            result.add(new Vector(
-                    ((x - oX) * cA) - ((y - oY) * sA),
-                    ((x - oX) * sA) + ((y - oY) * cA)
-            ));
-        }
-        return new Polygon(result);
+        return transform(cA, -sA, sA, cA,
+                oX - (oX * cA - oY * sA),
+                oY - (oX * sA + oY * cA));
     }
 
     /**
@@ -156,10 +188,159 @@ public class Polygon {
     }
 
     /**
-     * Returns the vectors that make up this polygon.
+     * Clips this polygon against a rectangle.
+     * @param viewport      the rectangle to clip against
+     * @return              a new clipped polygon, without vectors if
+     *                      nothing is left
+     */
+    public Polygon clip(Rectangle viewport) {
+        return new PolygonClipper().clip(this, viewport);
+    }
+
+    /**
+     * Returns the intersection of this polygon and an other.
+     * @param other         the other polygon
+     * @return              a list of new polygons, outer rings are
+     *                      counter-clockwise and holes clockwise
+     */
+    public List<Polygon> intersection(Polygon other) {
+        return new PolygonClipper().intersection(this, other);
+    }
+
+    /**
+     * Returns the union of this polygon and an other.
+     * @param other         the other polygon
+     * @return              a list of new polygons, outer rings are
+     *                      counter-clockwise and holes clockwise
+     */
+    public List<Polygon> union(Polygon other) {
+        return new PolygonClipper().union(this, other);
+    }
+
+    /**
+     * Returns this polygon minus an other.
+     * @param other         the other polygon
+     * @return              a list of new polygons, outer rings are
+     *                      counter-clockwise and holes clockwise
+     */
+    public List<Polygon> difference(Polygon other) {
+        return new PolygonClipper().difference(this, other);
+    }
+
+    /**
+     * Returns the Minkowski sum of this convex polygon and an other.
+     * @param other         the other convex polygon
+     * @return              a new convex polygon, counter-clockwise
+     */
+    public Polygon minkowskiSum(Polygon other) {
+        return new MinkowskiSum(other).sum(this);
+    }
+
+    /**
+     * Returns the Minkowski difference of this convex polygon and an
+     * other, the sum of this polygon and the other mirrored through
+     * the origin.
+     * @param other         the other convex polygon
+     * @return              a new convex polygon, counter-clockwise
+     */
+    public Polygon minkowskiDifference(Polygon other) {
+        return new MinkowskiSum(other).difference(this);
+    }
+
+    /**
+     * Returns the smallest rotated rectangle that contains this
+     * polygon.
+     * @return              a new oriented rectangle
+     */
+    public OrientedRectangle orientedBoundingBox() {
+        return RotatingCalipers.minimumAreaRectangle(convexHull());
+    }
+
+    /**
+     * Returns true if this polygon is simple, meaning none of its edges
+     * cross or touch, other than neighbouring edges at their shared
+     * vector. Takes O(n log n) time.
+     * @return              true if simple, false otherwise
+     */
+    public boolean isSimple() {
+        List<Vector> vectors = getVectors();
+        double[] coordinates = new double[vectors.size() * 2];
+        for (int i = 0; i < vectors.size(); i++) {
+            coordinates[i * 2] = vectors.get(i).getX();
+            coordinates[i * 2 + 1] = vectors.get(i).getY();
+        }
+        return SegmentIntersection.isSimple(coordinates, vectors.size());
+    }
+
+    /**
+     * Returns the area, centroid and moment of inertia of this polygon,
+     * which may be in either order but must not intersect itself. They
+     * are computed once and then kept. For many polygons at once, see
+     * {@link MassProperties#compute(List, double[], double[], double[])}.
+     * @return              the mass properties of this polygon
+     */
+    public MassProperties massProperties() {
+        MassProperties result = massProperties;
+        if (result == null && source != null) {
+            // Moving and rotating keep all but the centroid.
+            MassProperties properties = source.massProperties();
+            double[] t = transform;
+            double x = properties.getCentroidX(), y = properties.getCentroidY();
+            result = new MassProperties(properties.getArea(),
+                    t[0] * x + t[1] * y + t[4], t[2] * x + t[3] * y + t[5],
+                    properties.getInertia());
+            massProperties = result;
+        } else if (result == null) {
+            List<Vector> vectors = getVectors();
+            double[] coordinates = new double[vectors.size() * 2];
+            for (int i = 0; i < vectors.size(); i++) {
+                coordinates[i * 2] = vectors.get(i).getX();
+                coordinates[i * 2 + 1] = vectors.get(i).getY();
+            }
+            result = MassProperties.polygon(coordinates, 0, vectors.size());
+            // Racing threads compute the same immutable value.
+            massProperties = result;
+        }
+        return result;
+    }
+
+    /**
+     * Returns true if this polygon is a view of an other one, made by
+     * moving or rotating it.
+     * @return              true if this polygon is a view
+     */
+    public boolean isView() {
+        return source != null;
+    }
+
+    /**
+     * Computes the vectors of a view now, instead of when they are
+     * first read.
+     * @return              this polygon
+     */
+    public Polygon materialize() {
+        getVectors();
+        return this;
+    }
+
+    /**
+     * Returns the vectors that make up this polygon. Those of a view
+     * are computed, in one pass, on the first call.
      * @return              the vectors that make up this polygon
      */
     public List<Vector> getVectors() {
-        return vectors;
+        List<Vector> result = vectors;
+        if (result == null) {
+            double[] t = transform;
+            List<Vector> from = source.getVectors();
+            result = new ArrayList<>(from.size());
+            for (Vector v : from) {
+                double x = v.getX(), y = v.getY();
+                result.add(new Vector(t[0] * x + t[1] * y + t[4], t[2] * x + t[3] * y + t[5]));
+            }
+            // Racing threads compute equal lists.
+            vectors = result;
+        }
+        return result;
     }
 }
@@ -0,0 +1,290 @@
+package nl.pluizer.math2d;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The PolygonClipper class clips polygons and computes their
+ * intersection, union and difference.
+ *
+ * Clipping against a rectangle or a convex polygon is done with the
+ * Sutherland-Hodgman algorithm, which runs in O(n*m) for a subject with
+ * n and a clip region with m vertices but is very fast for small clip
+ * regions such as a viewport. Boolean operations between arbitrary
+ * polygons use a sweep line and may produce several rings.
+ *
+ * A clipper keeps its scratch buffers between calls so one instance
+ * can clip thousands of polygons every frame without allocating. It
+ * is not thread safe, use one clipper per thread.
+ *
+ * @author Richard van Roy
+ */
+public class PolygonClipper {
+
+    private final VectorBuffer scratchA = new VectorBuffer();
+    private final VectorBuffer scratchB = new VectorBuffer();
+    private final BooleanOperation booleanOperation = new BooleanOperation();
+    private final List<VectorBuffer> subjectRings = new ArrayList<>(1);
+    private final List<VectorBuffer> clippingRings = new ArrayList<>(1);
+
+    /**
+     * Clips a polygon against a rectangle.
+     * @param subject       the vectors of the polygon to clip
+     * @param viewport      the rectangle to clip against
+     * @param out           the buffer the clipped polygon is written
+     *                      to, empty if nothing is left, must not be
+     *                      the subject
+     */
+    public void clip(VectorBuffer subject, Rectangle viewport, VectorBuffer out) {
+        long start = Metrics.start();
+        clipRectangle(subject, viewport, out);
+        Metrics.record(Metrics.Operation.CLIP, subject.size(), start);
+    }
+
+    private void clipRectangle(VectorBuffer subject, Rectangle viewport, VectorBuffer out) {
+        double minX = Math.min(viewport.getLeft(), viewport.getRight());
+        double maxX = Math.max(viewport.getLeft(), viewport.getRight());
+        double minY = Math.min(viewport.getBottom(), viewport.getTop());
+        double maxY = Math.max(viewport.getBottom(), viewport.getTop());
+        out.clear();
+        int n = subject.size();
+        if (n == 0) {
+            return;
+        }
+        // Most polygons are either completely inside or outside.
+        double[] c = subject.getCoordinates();
+        double sMinX = c[0], sMaxX = c[0], sMinY = c[1], sMaxY = c[1];
+        for (int i = 2; i < n * 2; i += 2) {
+            sMinX = Math.min(sMinX, c[i]);
+            sMaxX = Math.max(sMaxX, c[i]);
+            sMinY = Math.min(sMinY, c[i + 1]);
+            sMaxY = Math.max(sMaxY, c[i + 1]);
+        }
+        if (sMaxX < minX || sMinX > maxX || sMaxY < minY || sMinY > maxY) {
+            return;
+        }
+        if (sMinX >= minX && sMaxX <= maxX && sMinY >= minY && sMaxY <= maxY) {
+            out.addAll(subject);
+            return;
+        }
+        clipPlane(subject, scratchA, 1, 0, -minX);
+        clipPlane(scratchA, scratchB, -1, 0, maxX);
+        clipPlane(scratchB, scratchA, 0, 1, -minY);
+        clipPlane(scratchA, out, 0, -1, maxY);
+    }
+
+    /**
+     * Clips a polygon against a convex polygon, which may be defined
+     * in clockwise or counter-clockwise order.
+     * @param subject       the vectors of the polygon to clip
+     * @param convexClip    the vectors of the convex polygon to clip
+     *                      against
+     * @param out           the buffer the clipped polygon is written
+     *                      to, empty if nothing is left, must not be
+     *                      the subject
+     */
+    public void clipConvex(VectorBuffer subject, VectorBuffer convexClip, VectorBuffer out) {
+        long start = Metrics.start();
+        clipPlanes(subject, convexClip, out);
+        Metrics.record(Metrics.Operation.CLIP, subject.size(), start);
+    }
+
+    private void clipPlanes(VectorBuffer subject, VectorBuffer convexClip, VectorBuffer out) {
+        out.clear();
+        int m = convexClip.size();
+        if (subject.size() == 0 || m < 3) {
+            return;
+        }
+        double sign = signedArea(convexClip) < 0 ? -1 : 1;
+        VectorBuffer input = subject;
+        VectorBuffer output = scratchA;
+        for (int i = 0; i < m; i++) {
+            int j = i + 1 == m ? 0 : i + 1;
+            double aX = convexClip.getX(i), aY = convexClip.getY(i);
+            double bX = convexClip.getX(j), bY = convexClip.getY(j);
+            // Normal of the edge, pointing inwards.
+            double nX = -(bY - aY) * sign;
+            double nY = (bX - aX) * sign;
+            clipPlane(input, output, nX, nY, -(nX * aX + nY * aY));
+            if (output.isEmpty()) {
+                return;
+            }
+            input = output;
+            output = output == scratchA ? scratchB : scratchA;
+        }
+        out.addAll(input);
+    }
+
+    /**
+     * Keeps the part of a polygon for which nX*x + nY*y + d >= 0.
+     */
+    static void clipPlane(VectorBuffer in, VectorBuffer out,
+                          double nX, double nY, double d) {
+        out.clear();
+        int n = in.size();
+        if (n == 0) {
+            return;
+        }
+        double[] c = in.getCoordinates();
+        double pX = c[n * 2 - 2], pY = c[n * 2 - 1];
+        double pD = nX * pX + nY * pY + d;
+        for (int i = 0; i < n * 2; i += 2) {
+            double x = c[i], y = c[i + 1];
+            double dist = nX * x + nY * y + d;
+            if (dist >= 0) {
+                if (pD < 0) {
+                    double t = pD / (pD - dist);
+                    out.add(pX + (x - pX) * t, pY + (y - pY) * t);
+                }
+                out.add(x, y);
+            } else if (pD >= 0) {
+                double t = pD / (pD - dist);
+                out.add(pX + (x - pX) * t, pY + (y - pY) * t);
+            }
+            pX = x;
+            pY = y;
+            pD = dist;
+        }
+    }
+
+    private static double signedArea(VectorBuffer ring) {
+        int n = ring.size();
+        double area = 0;
+        for (int i = 0, j = n - 1; i < n; j = i++) {
+            area += ring.getX(j) * ring.getY(i) - ring.getX(i) * ring.getY(j);
+        }
+        return area * 0.5d;
+    }
+
+    /**
+     * Clips a polygon against a rectangle.
+     * @param subject       the polygon to clip
+     * @param viewport      the rectangle to clip against
+     * @return              a new clipped polygon, without vectors if
+     *                      nothing is left
+     */
+    public Polygon clip(Polygon subject, Rectangle viewport) {
+        VectorBuffer out = new VectorBuffer(subject.getVectors().size() + 4);
+        clip(new VectorBuffer(subject), viewport, out);
+        return out.toPolygon();
+    }
+
+    /**
+     * Clips a polygon against a convex polygon.
+     * @param subject       the polygon to clip
+     * @param convexClip    the convex polygon to clip against
+     * @return              a new clipped polygon, without vectors if
+     *                      nothing is left
+     */
+    public Polygon clipConvex(Polygon subject, Polygon convexClip) {
+        VectorBuffer out = new VectorBuffer();
+        clipConvex(new VectorBuffer(subject), new VectorBuffer(convexClip), out);
+        return out.toPolygon();
+    }
+
+    /**
+     * Computes the intersection of two sets of polygon rings. The
+     * rings are interpreted with the even-odd rule, so a ring inside
+     * another ring of the same set is a hole. The resulting outer rings
+     * are counter-clockwise and the holes clockwise. They are written
+     * to the first buffers of out, reusing the buffers already in the
+     * list and adding new ones when needed, the buffers after that are
+     * cleared.
+     * @param subject       the rings of the first polygon
+     * @param clip          the rings of the second polygon
+     * @param out           the buffers to write the resulting rings to
+     * @return              the number of rings written
+     */
+    public int intersection(List<VectorBuffer> subject, List<VectorBuffer> clip,
+                            List<VectorBuffer> out) {
+        return booleanOperation.compute(subject, clip, BooleanOperation.INTERSECTION, out);
+    }
+
+    /**
+     * Computes the union of two sets of polygon rings.
+     * @see #intersection(List, List, List)
+     * @param subject       the rings of the first polygon
+     * @param clip          the rings of the second polygon
+     * @param out           the buffers to write the resulting rings to
+     * @return              the number of rings written
+     */
+    public int union(List<VectorBuffer> subject, List<VectorBuffer> clip,
+                     List<VectorBuffer> out) {
+        return booleanOperation.compute(subject, clip, BooleanOperation.UNION, out);
+    }
+
+    /**
+     * Computes the difference of two sets of polygon rings, the parts
+     * of subject that are not covered by clip.
+     * @see #intersection(List, List, List)
+     * @param subject       the rings of the first polygon
+     * @param clip          the rings of the second polygon
+     * @param out           the buffers to write the resulting rings to
+     * @return              the number of rings written
+     */
+    public int difference(List<VectorBuffer> subject, List<VectorBuffer> clip,
+                          List<VectorBuffer> out) {
+        return booleanOperation.compute(subject, clip, BooleanOperation.DIFFERENCE, out);
+    }
+
+    /**
+     * Computes the symmetric difference of two sets of polygon rings,
+     * the parts covered by exactly one of them.
+     * @see #intersection(List, List, List)
+     * @param subject       the rings of the first polygon
+     * @param clip          the rings of the second polygon
+     * @param out           the buffers to write the resulting rings to
+     * @return              the number of rings written
+     */
+    public int xor(List<VectorBuffer> subject, List<VectorBuffer> clip,
+                   List<VectorBuffer> out) {
+        return booleanOperation.compute(subject, clip, BooleanOperation.XOR, out);
+    }
+
+    /**
+     * Computes the intersection of two polygons.
+     * @param subject       the first polygon
+     * @param clip          the second polygon
+     * @return              a list of new polygons, outer rings are
+     *                      counter-clockwise and holes clockwise
+     */
+    public List<Polygon> intersection(Polygon subject, Polygon clip) {
+        return compute(subject, clip, BooleanOperation.INTERSECTION);
+    }
+
+    /**
+     * Computes the union of two polygons.
+     * @param subject       the first polygon
+     * @param clip          the second polygon
+     * @return              a list of new polygons, outer rings are
+     *                      counter-clockwise and holes clockwise
+     */
+    public List<Polygon> union(Polygon subject, Polygon clip) {
+        return compute(subject, clip, BooleanOperation.UNION);
+    }
+
+    /**
+     * Computes the difference of two polygons.
+     * @param subject       the polygon to subtract from
+     * @param clip          the polygon to subtract
+     * @return              a list of new polygons, outer rings are
+     *                      counter-clockwise and holes clockwise
+     */
+    public List<Polygon> difference(Polygon subject, Polygon clip) {
+        return compute(subject, clip, BooleanOperation.DIFFERENCE);
+    }
+
+    private List<Polygon> compute(Polygon subject, Polygon clip, int operation) {
+        subjectRings.clear();
+        clippingRings.clear();
+        subjectRings.add(new VectorBuffer(subject));
+        clippingRings.add(new VectorBuffer(clip));
+        List<VectorBuffer> rings = new ArrayList<>();
+        int count = booleanOperation.compute(subjectRings, clippingRings, operation, rings);
+        List<Polygon> result = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            result.add(rings.get(i).toPolygon());
+        }
+        return result;
+    }
+}
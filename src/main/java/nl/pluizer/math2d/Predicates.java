@@ -0,0 +1,288 @@
+package nl.pluizer.math2d;
+
+import java.util.Arrays;
+
+/**
+ * The Predicates class decides on which side of a line, or of a circle,
+ * a vector lies, always with the correct sign.
+ *
+ * Both predicates first evaluate the determinant in plain double
+ * arithmetic together with a bound on its rounding error, which settles
+ * almost every call. Only when the result lies within that bound is it
+ * recomputed exactly with floating point expansions, after Shewchuk's
+ * "Adaptive Precision Floating-Point Arithmetic and Fast Robust
+ * Geometric Predicates". The returned values are approximations of the
+ * determinants, but their signs are exact.
+ *
+ * @author Richard van Roy
+ */
+public final class Predicates {
+
+    private static final double EPSILON = 0x1p-53;
+
+    // Used to split a double in two halves of 26 bits.
+    private static final double SPLITTER = 0x1p27 + 1;
+
+    private static final double ORIENT_BOUND_A = (3 + 16 * EPSILON) * EPSILON;
+    private static final double IN_CIRCLE_BOUND_A = (10 + 96 * EPSILON) * EPSILON;
+
+    private Predicates() {
+    }
+
+    /**
+     * Returns a positive value if a, b and c are in counter-clockwise
+     * order, a negative value if they are clockwise and zero if they
+     * are collinear. The value is twice the signed area of the triangle.
+     * @param aX            the x value of a
+     * @param aY            the y value of a
+     * @param bX            the x value of b
+     * @param bY            the y value of b
+     * @param cX            the x value of c
+     * @param cY            the y value of c
+     * @return              the orientation of a, b and c
+     */
+    public static double orient(double aX, double aY, double bX, double bY,
+                                double cX, double cY) {
+        double left = (aX - cX) * (bY - cY);
+        double right = (aY - cY) * (bX - cX);
+        double det = left - right;
+        double sum;
+        if (left > 0) {
+            if (right <= 0) {
+                return det;
+            }
+            sum = left + right;
+        } else if (left < 0) {
+            if (right >= 0) {
+                return det;
+            }
+            sum = -left - right;
+        } else {
+            return det;
+        }
+        double bound = ORIENT_BOUND_A * sum;
+        if (det >= bound || -det >= bound) {
+            return det;
+        }
+        return orientExact(aX, aY, bX, bY, cX, cY);
+    }
+
+    /**
+     * Returns the orientation of three vectors.
+     * @see #orient(double, double, double, double, double, double)
+     * @param a             the first vector
+     * @param b             the second vector
+     * @param c             the third vector
+     * @return              positive if counter-clockwise, negative if
+     *                      clockwise and zero if collinear
+     */
+    public static double orient(Vector a, Vector b, Vector c) {
+        return orient(a.getX(), a.getY(), b.getX(), b.getY(), c.getX(), c.getY());
+    }
+
+    /**
+     * Returns a positive value if d lies inside the circle through a,
+     * b and c, a negative value if it lies outside and zero if it lies
+     * on the circle. The sign is reversed if a, b and c are clockwise.
+     * @param aX            the x value of a
+     * @param aY            the y value of a
+     * @param bX            the x value of b
+     * @param bY            the y value of b
+     * @param cX            the x value of c
+     * @param cY            the y value of c
+     * @param dX            the x value of d
+     * @param dY            the y value of d
+     * @return              the side of the circle d lies on
+     */
+    public static double inCircle(double aX, double aY, double bX, double bY,
+                                  double cX, double cY, double dX, double dY) {
+        double adX = aX - dX, adY = aY - dY;
+        double bdX = bX - dX, bdY = bY - dY;
+        double cdX = cX - dX, cdY = cY - dY;
+        double bdXcdY = bdX * cdY, cdXbdY = cdX * bdY;
+        double aLift = adX * adX + adY * adY;
+        double cdXadY = cdX * adY, adXcdY = adX * cdY;
+        double bLift = bdX * bdX + bdY * bdY;
+        double adXbdY = adX * bdY, bdXadY = bdX * adY;
+        double cLift = cdX * cdX + cdY * cdY;
+        double det = aLift * (bdXcdY - cdXbdY) +
+                bLift * (cdXadY - adXcdY) +
+                cLift * (adXbdY - bdXadY);
+        double permanent = (Math.abs(bdXcdY) + Math.abs(cdXbdY)) * aLift +
+                (Math.abs(cdXadY) + Math.abs(adXcdY)) * bLift +
+                (Math.abs(adXbdY) + Math.abs(bdXadY)) * cLift;
+        double bound = IN_CIRCLE_BOUND_A * permanent;
+        if (det > bound || -det > bound) {
+            return det;
+        }
+        return inCircleExact(aX, aY, bX, bY, cX, cY, dX, dY);
+    }
+
+    /**
+     * Returns on which side of the circle through a, b and c the
+     * vector d lies.
+     * @see #inCircle(double, double, double, double, double, double, double, double)
+     * @param a             the first vector on the circle
+     * @param b             the second vector on the circle
+     * @param c             the third vector on the circle
+     * @param d             the vector to test
+     * @return              positive if inside, negative if outside and
+     *                      zero on the circle, for counter-clockwise a,
+     *                      b and c
+     */
+    public static double inCircle(Vector a, Vector b, Vector c, Vector d) {
+        return inCircle(a.getX(), a.getY(), b.getX(), b.getY(),
+                c.getX(), c.getY(), d.getX(), d.getY());
+    }
+
+    private static double orientExact(double aX, double aY, double bX, double bY,
+                                      double cX, double cY) {
+        double acX = aX - cX, acY = aY - cY;
+        double bcX = bX - cX, bcY = bY - cY;
+        double[] h = new double[16];
+        if (diffTail(aX, cX, acX) == 0 && diffTail(aY, cY, acY) == 0 &&
+                diffTail(bX, cX, bcX) == 0 && diffTail(bY, cY, bcY) == 0) {
+            // The differences are exact, so only the two products and
+            // their difference need more precision.
+            double[] p = new double[2], q = new double[2];
+            product(acX, bcY, p);
+            product(-acY, bcX, q);
+            return estimate(h, sum(2, p, 2, q, h));
+        }
+        // a.x b.y - a.x c.y - c.x b.y - a.y b.x + a.y c.x + c.y b.x
+        double[] p = new double[2], t = new double[16];
+        int n = 0;
+        double[] factors = {aX, bY, -aX, cY, -cX, bY, -aY, bX, aY, cX, cY, bX};
+        for (int i = 0; i < factors.length; i += 2) {
+            product(factors[i], factors[i + 1], p);
+            n = sum(n, h, 2, p, t);
+            double[] swap = h;
+            h = t;
+            t = swap;
+        }
+        return estimate(h, n);
+    }
+
+    private static double inCircleExact(double aX, double aY, double bX, double bY,
+                                        double cX, double cY, double dX, double dY) {
+        double[] adX = difference(aX, dX), adY = difference(aY, dY);
+        double[] bdX = difference(bX, dX), bdY = difference(bY, dY);
+        double[] cdX = difference(cX, dX), cdY = difference(cY, dY);
+        double[] aLift = add(multiply(adX, adX), multiply(adY, adY));
+        double[] bLift = add(multiply(bdX, bdX), multiply(bdY, bdY));
+        double[] cLift = add(multiply(cdX, cdX), multiply(cdY, cdY));
+        double[] bc = add(multiply(bdX, cdY), negate(multiply(cdX, bdY)));
+        double[] ca = add(multiply(cdX, adY), negate(multiply(adX, cdY)));
+        double[] ab = add(multiply(adX, bdY), negate(multiply(bdX, adY)));
+        double[] det = add(add(multiply(aLift, bc), multiply(bLift, ca)), multiply(cLift, ab));
+        return estimate(det, det.length);
+    }
+
+    /**
+     * The rounding error of a - b, given x = a - b rounded.
+     */
+    private static double diffTail(double a, double b, double x) {
+        double bVirtual = a - x;
+        double aVirtual = x + bVirtual;
+        return (a - aVirtual) + (bVirtual - b);
+    }
+
+    /**
+     * Writes a * b as the exact sum out[0] + out[1], Dekker's product.
+     */
+    private static void product(double a, double b, double[] out) {
+        double x = a * b;
+        double c = SPLITTER * a;
+        double aHi = c - (c - a), aLo = a - aHi;
+        c = SPLITTER * b;
+        double bHi = c - (c - b), bLo = b - bHi;
+        double error = x - aHi * bHi - aLo * bHi - aHi * bLo;
+        out[0] = aLo * bLo - error;
+        out[1] = x;
+    }
+
+    /**
+     * Sums two expansions into h, leaving out zero components.
+     * @return              the length of h
+     */
+    private static int sum(int eLength, double[] e, int fLength, double[] f, double[] h) {
+        // Shewchuk's linear expansion sum with zero elimination.
+        int length = 0;
+        int i = 0, j = 0;
+        double q = 0;
+        boolean first = true;
+        while (i < eLength || j < fLength) {
+            double next;
+            if (j >= fLength || (i < eLength && Math.abs(e[i]) < Math.abs(f[j]))) {
+                next = e[i++];
+            } else {
+                next = f[j++];
+            }
+            if (first) {
+                q = next;
+                first = false;
+                continue;
+            }
+            double x = q + next;
+            double bVirtual = x - q;
+            double aVirtual = x - bVirtual;
+            double tail = (q - aVirtual) + (next - bVirtual);
+            if (tail != 0) {
+                h[length++] = tail;
+            }
+            q = x;
+        }
+        if (q != 0 || length == 0) {
+            h[length++] = q;
+        }
+        return length;
+    }
+
+    private static double[] difference(double a, double b) {
+        double x = a - b;
+        double tail = diffTail(a, b, x);
+        return tail == 0 ? new double[] {x} : new double[] {tail, x};
+    }
+
+    private static double[] add(double[] e, double[] f) {
+        double[] h = new double[e.length + f.length];
+        int n = sum(e.length, e, f.length, f, h);
+        return n == h.length ? h : Arrays.copyOf(h, n);
+    }
+
+    private static double[] negate(double[] e) {
+        double[] h = new double[e.length];
+        for (int i = 0; i < e.length; i++) {
+            h[i] = -e[i];
+        }
+        return h;
+    }
+
+    private static double[] multiply(double[] e, double[] f) {
+        double[] result = {0};
+        double[] p = new double[2];
+        for (double b : f) {
+            double[] scaled = new double[e.length * 2];
+            int n = 0;
+            for (double a : e) {
+                product(a, b, p);
+                double[] t = new double[n + 2];
+                n = sum(n, scaled, 2, p, t);
+                System.arraycopy(t, 0, scaled, 0, n);
+            }
+            result = add(result, Arrays.copyOf(scaled, n));
+        }
+        return result;
+    }
+
+    /**
+     * Approximates an expansion, the sign is always right.
+     */
+    private static double estimate(double[] e, int length) {
+        double q = 0;
+        for (int i = 0; i < length; i++) {
+            q += e[i];
+        }
+        return q;
+    }
+}
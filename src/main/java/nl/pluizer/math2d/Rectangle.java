@@ -49,6 +49,21 @@ public class Rectangle implements Shape {
         this(new Vector(), width, height);
     }
 
+    /**
+     * Creates a rectangle from its lowest and highest x and y values.
+     * Values given in the wrong order are swapped, as in
+     * {@link FloatRectangle#fromBounds(float, float, float, float)}.
+     * @param minX          the lowest x value
+     * @param minY          the lowest y value
+     * @param maxX          the highest x value
+     * @param maxY          the highest y value
+     * @return              a new rectangle
+     */
+    public static Rectangle fromBounds(double minX, double minY, double maxX, double maxY) {
+        return new Rectangle(Math.min(minX, maxX), Math.max(minX, maxX),
+                Math.min(minY, maxY), Math.max(minY, maxY));
+    }
+
     /**
      * Creates a rectangle that encapsulates a circle.
      * @param circle        the circle to encapsulate
@@ -81,6 +96,7 @@ public class Rectangle implements Shape {
         if (vectors.size() <= 2) {
             throw new RuntimeException("Need at least two vectors.");
         }
+        long start = Metrics.start();
 
         // Do not touch the original vectors.
         List<Vector> vectorsCopy = new ArrayList<>(vectors);
@@ -101,6 +117,7 @@ public class Rectangle implements Shape {
         double minY = vectorsCopy.get(0).getY();
         double maxY = vectorsCopy.get(vectorsCopy.size() - 1).getY();
 
+        Metrics.record(Metrics.Operation.BOUNDS, vectors.size(), start);
         return new Rectangle(minX, maxX, minY, maxY);
     }
 
@@ -122,6 +139,34 @@ public class Rectangle implements Shape {
         return new Vector(right, bottom);
     }
 
+    /**
+     * @return              the x value of the left edge
+     */
+    public double getLeft() {
+        return left;
+    }
+
+    /**
+     * @return              the x value of the right edge
+     */
+    public double getRight() {
+        return right;
+    }
+
+    /**
+     * @return              the y value of the bottom edge
+     */
+    public double getBottom() {
+        return bottom;
+    }
+
+    /**
+     * @return              the y value of the top edge
+     */
+    public double getTop() {
+        return top;
+    }
+
     /**
      * Returns the total width of this rectangle.
      * @return              the width of this rectangle
@@ -226,6 +271,16 @@ public class Rectangle implements Shape {
         return (left-right) * (top-bottom);
     }
 
+    /**
+     * Returns the area, centroid and moment of inertia of this
+     * rectangle.
+     * @return              the mass properties of this rectangle
+     */
+    public MassProperties massProperties() {
+        return MassProperties.rectangle((left + right) * 0.5d, (bottom + top) * 0.5d,
+                getWidth(), getHeight());
+    }
+
     /**
      * If the line between vectors v1 and v2 hit the bounding box
      * this methods returns the fraction along the segment query
@@ -237,6 +292,13 @@ public class Rectangle implements Shape {
      *                      or Double.POSITIVE_INFINITY
      */
     public double segmentQuery(Vector v1, Vector v2) {
+        long start = Metrics.start();
+        double fraction = fraction(v1, v2);
+        Metrics.record(Metrics.Operation.SEGMENT_QUERY, 2, start);
+        return fraction;
+    }
+
+    private double fraction(Vector v1, Vector v2) {
         double xA = v1.getX(), xB = v2.getX();
         double idX = 1.0d / (xB - xA);
         double tx1 = xA == left
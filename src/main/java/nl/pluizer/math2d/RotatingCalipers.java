@@ -0,0 +1,214 @@
+package nl.pluizer.math2d;
+
+/**
+ * The RotatingCalipers class measures convex polygons, such as the
+ * result of {@link Polygon#convexHull()}, by rotating a pair of
+ * parallel lines around them. Every method runs in O(h) for a convex
+ * polygon with h vectors, in clockwise or counter-clockwise order.
+ *
+ * @author Richard van Roy
+ */
+public final class RotatingCalipers {
+
+    private RotatingCalipers() {
+    }
+
+    /**
+     * Returns the smallest (by area) rotated rectangle that contains a
+     * convex polygon. One of its sides always lies along an edge of
+     * the polygon.
+     * @param hull          the convex polygon
+     * @return              a new oriented rectangle
+     */
+    public static OrientedRectangle minimumAreaRectangle(Polygon hull) {
+        return minimumAreaRectangle(new VectorBuffer(hull));
+    }
+
+    /**
+     * Returns the smallest (by area) rotated rectangle that contains a
+     * convex polygon.
+     * @param hull          the vectors of the convex polygon
+     * @return              a new oriented rectangle
+     */
+    public static OrientedRectangle minimumAreaRectangle(VectorBuffer hull) {
+        int h = hull.size();
+        if (h == 0) {
+            throw new IllegalArgumentException("Need at least one vector.");
+        }
+        double[] c = counterClockwise(hull);
+        double bestArea = Double.POSITIVE_INFINITY;
+        // A single (possibly repeated) vector gives an empty rectangle.
+        double bestCX = c[0], bestCY = c[1], bestUX = 1, bestUY = 0, bestW = 0, bestH = 0;
+        // Vectors furthest along the edge, away from it and backwards.
+        int right = 0, top = 0, left = 0;
+        boolean started = false;
+        for (int i = 0; i < h; i++) {
+            int i1 = next(i, h);
+            double oX = c[i * 2], oY = c[i * 2 + 1];
+            double eX = c[i1 * 2] - oX, eY = c[i1 * 2 + 1] - oY;
+            double length = Math.sqrt(eX * eX + eY * eY);
+            if (length == 0) {
+                continue;
+            }
+            double uX = eX / length, uY = eY / length;
+            if (!started) {
+                right = i1;
+                top = i1;
+            }
+            while (project(c, next(right, h), oX, oY, uX, uY) >= project(c, right, oX, oY, uX, uY) &&
+                    next(right, h) != i) {
+                right = next(right, h);
+            }
+            // The normal (-uY, uX) points into a counter-clockwise polygon.
+            while (project(c, next(top, h), oX, oY, -uY, uX) >= project(c, top, oX, oY, -uY, uX) &&
+                    next(top, h) != i) {
+                top = next(top, h);
+            }
+            if (!started) {
+                left = top;
+                started = true;
+            }
+            while (project(c, next(left, h), oX, oY, uX, uY) <= project(c, left, oX, oY, uX, uY) &&
+                    next(left, h) != i1) {
+                left = next(left, h);
+            }
+            double maxU = project(c, right, oX, oY, uX, uY);
+            double minU = project(c, left, oX, oY, uX, uY);
+            double maxV = project(c, top, oX, oY, -uY, uX);
+            double area = (maxU - minU) * maxV;
+            if (area < bestArea) {
+                bestArea = area;
+                double midU = (maxU + minU) * 0.5d, midV = maxV * 0.5d;
+                bestCX = oX + uX * midU - uY * midV;
+                bestCY = oY + uY * midU + uX * midV;
+                bestUX = uX;
+                bestUY = uY;
+                bestW = (maxU - minU) * 0.5d;
+                bestH = maxV * 0.5d;
+            }
+        }
+        return new OrientedRectangle(bestCX, bestCY, bestUX, bestUY, bestW, bestH);
+    }
+
+    /**
+     * Returns the diameter of a convex polygon, the largest distance
+     * between any two of its vectors.
+     * @param hull          the convex polygon
+     * @return              the diameter
+     */
+    public static double diameter(Polygon hull) {
+        return diameter(new VectorBuffer(hull));
+    }
+
+    /**
+     * Returns the diameter of a convex polygon, the largest distance
+     * between any two of its vectors.
+     * @param hull          the vectors of the convex polygon
+     * @return              the diameter
+     */
+    public static double diameter(VectorBuffer hull) {
+        int h = hull.size();
+        if (h < 2) {
+            return 0;
+        }
+        double[] c = counterClockwise(hull);
+        double best = 0;
+        int j = 1;
+        // Walk the antipodal pairs, comparing squared distances.
+        for (int i = 0; i < h; i++) {
+            int i1 = next(i, h);
+            while (next(j, h) != i &&
+                    area(c, i, i1, next(j, h)) > area(c, i, i1, j)) {
+                j = next(j, h);
+            }
+            best = Math.max(best, distanceSquared(c, i, j));
+            best = Math.max(best, distanceSquared(c, i1, j));
+        }
+        return Math.sqrt(best);
+    }
+
+    /**
+     * Returns the width of a convex polygon, the smallest distance
+     * between two parallel lines that enclose it.
+     * @param hull          the convex polygon
+     * @return              the minimum width
+     */
+    public static double minimumWidth(Polygon hull) {
+        return minimumWidth(new VectorBuffer(hull));
+    }
+
+    /**
+     * Returns the width of a convex polygon, the smallest distance
+     * between two parallel lines that enclose it.
+     * @param hull          the vectors of the convex polygon
+     * @return              the minimum width
+     */
+    public static double minimumWidth(VectorBuffer hull) {
+        int h = hull.size();
+        if (h < 3) {
+            return 0;
+        }
+        double[] c = counterClockwise(hull);
+        double best = Double.POSITIVE_INFINITY;
+        int j = 1;
+        for (int i = 0; i < h; i++) {
+            int i1 = next(i, h);
+            double eX = c[i1 * 2] - c[i * 2], eY = c[i1 * 2 + 1] - c[i * 2 + 1];
+            double length = Math.sqrt(eX * eX + eY * eY);
+            if (length == 0) {
+                continue;
+            }
+            while (next(j, h) != i &&
+                    area(c, i, i1, next(j, h)) >= area(c, i, i1, j)) {
+                j = next(j, h);
+            }
+            best = Math.min(best, area(c, i, i1, j) / length);
+        }
+        return best == Double.POSITIVE_INFINITY ? 0 : best;
+    }
+
+    /**
+     * Returns the packed vectors of a convex polygon in
+     * counter-clockwise order.
+     */
+    private static double[] counterClockwise(VectorBuffer hull) {
+        int h = hull.size();
+        double[] c = hull.toArray();
+        double area = 0;
+        for (int i = 0, j = h - 1; i < h; j = i++) {
+            area += c[j * 2] * c[i * 2 + 1] - c[i * 2] * c[j * 2 + 1];
+        }
+        if (area < 0) {
+            for (int i = 0, j = h - 1; i < j; i++, j--) {
+                double x = c[i * 2], y = c[i * 2 + 1];
+                c[i * 2] = c[j * 2];
+                c[i * 2 + 1] = c[j * 2 + 1];
+                c[j * 2] = x;
+                c[j * 2 + 1] = y;
+            }
+        }
+        return c;
+    }
+
+    private static int next(int i, int h) {
+        return i + 1 == h ? 0 : i + 1;
+    }
+
+    private static double project(double[] c, int i, double oX, double oY,
+                                  double dX, double dY) {
+        return (c[i * 2] - oX) * dX + (c[i * 2 + 1] - oY) * dY;
+    }
+
+    /**
+     * Twice the area of the triangle a, b, p.
+     */
+    private static double area(double[] c, int a, int b, int p) {
+        double aX = c[a * 2], aY = c[a * 2 + 1];
+        return (c[b * 2] - aX) * (c[p * 2 + 1] - aY) - (c[b * 2 + 1] - aY) * (c[p * 2] - aX);
+    }
+
+    private static double distanceSquared(double[] c, int a, int b) {
+        double dX = c[a * 2] - c[b * 2], dY = c[a * 2 + 1] - c[b * 2 + 1];
+        return dX * dX + dY * dY;
+    }
+}
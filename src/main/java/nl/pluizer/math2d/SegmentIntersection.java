@@ -0,0 +1,804 @@
+package nl.pluizer.math2d;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.util.Arrays;
+
+/**
+ * The SegmentIntersection class finds all pairs of line segments that
+ * intersect, with a Bentley-Ottmann sweep in O((n + k) log n) time for
+ * n segments and k intersecting pairs.
+ *
+ * A vertical line sweeps from left to right over the endpoints of the
+ * segments and the intersections found so far. The segments it crosses
+ * are kept in a balanced tree ordered from bottom to top, and only
+ * segments that become neighbours in that tree are tested against each
+ * other. Whether an endpoint lies on a segment is decided exactly with
+ * {@link Predicates#orient(double, double, double, double, double, double)},
+ * so segments that touch or overlap are found as well. Crossings are
+ * only computed exactly when their rounded points are too close to
+ * other events to tell them apart.
+ *
+ * Segments are passed as packed x1, y1, x2, y2 values. Every pair is
+ * reported once, with the first point the segments have in common when
+ * ordered by x and then by y.
+ *
+ * @author Richard van Roy
+ */
+public class SegmentIntersection {
+
+    final private int[] pairs;
+    final private double[] points;
+
+    /**
+     * Finds all intersecting pairs of segments.
+     * @param segments      the packed x1, y1, x2, y2 values of the
+     *                      segments
+     * @param count         the number of segments
+     */
+    public SegmentIntersection(double[] segments, int count) {
+        long start = Metrics.start();
+        Sweep sweep = new Sweep(segments, count, null, false);
+        sweep.run();
+        int k = sweep.records;
+        // Sort the records by pair, then by point, and keep the first.
+        int[] order = new int[k];
+        for (int i = 0; i < k; i++) {
+            order[i] = i;
+        }
+        sort(order, sweep.recordPairs, sweep.recordX, sweep.recordY, 0, k - 1);
+        int n = 0;
+        for (int i = 0; i < k; i++) {
+            if (i == 0 || sweep.recordPairs[order[i]] != sweep.recordPairs[order[i - 1]]) {
+                order[n++] = order[i];
+            }
+        }
+        pairs = new int[n * 2];
+        points = new double[n * 2];
+        for (int i = 0; i < n; i++) {
+            long pair = sweep.recordPairs[order[i]];
+            pairs[i * 2] = (int) (pair >>> 32);
+            pairs[i * 2 + 1] = (int) pair;
+            points[i * 2] = sweep.recordX[order[i]];
+            points[i * 2 + 1] = sweep.recordY[order[i]];
+        }
+        Metrics.record(Metrics.Operation.SEGMENT_INTERSECTION, count, start);
+    }
+
+    /**
+     * Returns true if any two segments have a point in common. The
+     * sweep stops at the first intersection, so this takes O(n log n)
+     * time.
+     * @param segments      the packed x1, y1, x2, y2 values of the
+     *                      segments
+     * @param count         the number of segments
+     * @return              true if two segments intersect
+     */
+    public static boolean intersects(double[] segments, int count) {
+        long start = Metrics.start();
+        Sweep sweep = new Sweep(segments, count, null, true);
+        sweep.run();
+        Metrics.record(Metrics.Operation.SEGMENT_INTERSECTION, count, start);
+        return sweep.found;
+    }
+
+    /**
+     * Returns true if a polygon is simple: none of its edges intersect,
+     * except for neighbouring edges at the vector they share.
+     * @param coordinates   the packed x, y values of the vectors of the
+     *                      polygon, in order
+     * @param count         the number of vectors
+     * @return              true if the polygon is simple
+     */
+    public static boolean isSimple(double[] coordinates, int count) {
+        long start = Metrics.start();
+        double[] segments = new double[count * 4];
+        for (int i = 0; i < count; i++) {
+            int j = i + 1 == count ? 0 : i + 1;
+            segments[i * 4] = coordinates[i * 2];
+            segments[i * 4 + 1] = coordinates[i * 2 + 1];
+            segments[i * 4 + 2] = coordinates[j * 2];
+            segments[i * 4 + 3] = coordinates[j * 2 + 1];
+        }
+        Sweep sweep = new Sweep(segments, count, coordinates, true);
+        sweep.run();
+        Metrics.record(Metrics.Operation.SEGMENT_INTERSECTION, count, start);
+        return !sweep.found;
+    }
+
+    /**
+     * @return              the number of intersecting pairs
+     */
+    public int size() {
+        return pairs.length / 2;
+    }
+
+    /**
+     * @param i             the index of an intersection
+     * @return              the lower segment index of the pair
+     */
+    public int getSegmentA(int i) {
+        return pairs[i * 2];
+    }
+
+    /**
+     * @param i             the index of an intersection
+     * @return              the higher segment index of the pair
+     */
+    public int getSegmentB(int i) {
+        return pairs[i * 2 + 1];
+    }
+
+    /**
+     * @param i             the index of an intersection
+     * @return              the x value of the intersection
+     */
+    public double getX(int i) {
+        return points[i * 2];
+    }
+
+    /**
+     * @param i             the index of an intersection
+     * @return              the y value of the intersection
+     */
+    public double getY(int i) {
+        return points[i * 2 + 1];
+    }
+
+    /**
+     * Returns the intersecting pairs as packed segment indices, the
+     * lower index first, sorted by pair.
+     * @return              the pairs, not a copy
+     */
+    public int[] getPairs() {
+        return pairs;
+    }
+
+    /**
+     * Returns the packed x, y values of the intersections, in the
+     * order of {@link #getPairs()}.
+     * @return              the points, not a copy
+     */
+    public double[] getPoints() {
+        return points;
+    }
+
+    /**
+     * The state of a single sweep.
+     *
+     * Events are the endpoints of the segments and the crossings of
+     * neighbouring segments. A crossing is kept as the pair of segments
+     * that cross, with a rounded point and a bound on its rounding error.
+     * Whenever that bound is too wide to order two events, or to tell on
+     * which side of a segment a crossing lies, the crossing is computed
+     * exactly as a fraction of big decimals, so the order of the status
+     * is always the true order.
+     */
+    private static final class Sweep {
+
+        private static final double EPSILON = 0x1p-53;
+
+        final int n;
+        // The segments, with (aX, aY) before (bX, bY) by x, then y.
+        final double[] aX, aY, bX, bY;
+        // The vectors of a polygon, if the segments are its edges.
+        final double[] ring;
+        final boolean any;
+
+        // The status, a treap of segment indices from bottom to top.
+        final int[] left, right, priority;
+        int root = -1;
+        int low, high;
+
+        // Crossings still to come, a binary heap of rounded points,
+        // their error bounds and the pairs of segments that cross.
+        double[] heapX = new double[16], heapY = new double[16];
+        double[] heapErrorX = new double[16], heapErrorY = new double[16];
+        int[] heapS = new int[16], heapT = new int[16];
+        int heapSize;
+
+        // The current event, the crossing of pS and pT unless both
+        // errors are zero.
+        double pX, pY, pErrorX, pErrorY;
+        int pS, pT;
+        BigDecimal[] pExact;
+
+        // The rounded crossing of the last pair passed to cross().
+        double crossX, crossY, crossErrorX, crossErrorY;
+
+        // Segments through the current event.
+        int[] middle = new int[8];
+        int middleSize;
+        int[] inserted = new int[8];
+
+        boolean found;
+        long[] recordPairs = new long[16];
+        double[] recordX = new double[16], recordY = new double[16];
+        int records;
+
+        Sweep(double[] segments, int count, double[] ring, boolean any) {
+            this.n = count;
+            this.ring = ring;
+            this.any = any;
+            aX = new double[count];
+            aY = new double[count];
+            bX = new double[count];
+            bY = new double[count];
+            left = new int[count];
+            right = new int[count];
+            priority = new int[count];
+            int seed = 0x9E3779B9;
+            for (int i = 0; i < count; i++) {
+                double x1 = segments[i * 4], y1 = segments[i * 4 + 1];
+                double x2 = segments[i * 4 + 2], y2 = segments[i * 4 + 3];
+                boolean swap = x1 > x2 || (x1 == x2 && y1 > y2);
+                aX[i] = swap ? x2 : x1;
+                aY[i] = swap ? y2 : y1;
+                bX[i] = swap ? x1 : x2;
+                bY[i] = swap ? y1 : y2;
+                seed ^= seed << 13;
+                seed ^= seed >>> 17;
+                seed ^= seed << 5;
+                priority[i] = seed;
+            }
+        }
+
+        void run() {
+            int[] starts = new int[n], ends = new int[n];
+            for (int i = 0; i < n; i++) {
+                starts[i] = ends[i] = i;
+            }
+            sort(starts, null, aX, aY, 0, n - 1);
+            sort(ends, null, bX, bY, 0, n - 1);
+            int s = 0, e = 0;
+            while (!found && (s < n || e < n || heapSize > 0)) {
+                // The next event is the first of the three queues, an
+                // endpoint if a crossing falls on it.
+                double x = Double.POSITIVE_INFINITY, y = Double.POSITIVE_INFINITY;
+                if (s < n) {
+                    x = aX[starts[s]];
+                    y = aY[starts[s]];
+                }
+                if (e < n && before(bX[ends[e]], bY[ends[e]], x, y)) {
+                    x = bX[ends[e]];
+                    y = bY[ends[e]];
+                }
+                pExact = null;
+                int first = s;
+                if (heapSize > 0 && ((s == n && e == n) || compare(0, x, y, 0, 0, -1, -1) < 0)) {
+                    pX = heapX[0];
+                    pY = heapY[0];
+                    pErrorX = heapErrorX[0];
+                    pErrorY = heapErrorY[0];
+                    pS = heapS[0];
+                    pT = heapT[0];
+                } else {
+                    pX = x;
+                    pY = y;
+                    pErrorX = pErrorY = 0;
+                    while (s < n && aX[starts[s]] == x && aY[starts[s]] == y) {
+                        s++;
+                    }
+                    while (e < n && bX[ends[e]] == x && bY[ends[e]] == y) {
+                        e++;
+                    }
+                }
+                while (heapSize > 0 && compare(0, pX, pY, pErrorX, pErrorY, pS, pT) == 0) {
+                    pop();
+                }
+                handle(starts, first, s);
+            }
+        }
+
+        /**
+         * Handles the current event, where the segments starts[from] up
+         * to starts[to] begin.
+         */
+        private void handle(int[] starts, int from, int to) {
+            split(root, 0);
+            int below = low;
+            split(high, 1);
+            int through = low, above = high;
+            middleSize = 0;
+            collect(through);
+            // Every two segments through this event intersect here.
+            for (int i = 0; i < middleSize; i++) {
+                for (int j = i + 1; j < middleSize; j++) {
+                    report(middle[i], middle[j], pX, pY);
+                }
+                for (int j = from; j < to; j++) {
+                    report(middle[i], starts[j], pX, pY);
+                }
+            }
+            for (int i = from; i < to; i++) {
+                for (int j = i + 1; j < to; j++) {
+                    report(starts[i], starts[j], pX, pY);
+                }
+            }
+            if (found) {
+                return;
+            }
+            // Put back the segments that continue, with the new ones,
+            // in their order just after this event.
+            if (inserted.length < middleSize + to - from) {
+                inserted = new int[(middleSize + to - from) * 2];
+            }
+            int count = 0;
+            boolean crossing = pErrorX > 0 || pErrorY > 0;
+            for (int i = 0; i < middleSize; i++) {
+                int segment = middle[i];
+                if (bX[segment] != pX || bY[segment] != pY || crossing) {
+                    inserted[count++] = segment;
+                }
+            }
+            for (int i = from; i < to; i++) {
+                int segment = starts[i];
+                if (bX[segment] != pX || bY[segment] != pY) {
+                    inserted[count++] = segment;
+                }
+            }
+            for (int i = 1; i < count; i++) {
+                int segment = inserted[i];
+                int j = i - 1;
+                while (j >= 0 && lower(segment, inserted[j])) {
+                    inserted[j + 1] = inserted[j];
+                    j--;
+                }
+                inserted[j + 1] = segment;
+            }
+            int tree = -1;
+            for (int i = 0; i < count; i++) {
+                left[inserted[i]] = right[inserted[i]] = -1;
+                tree = merge(tree, inserted[i]);
+            }
+            int lower = below < 0 ? -1 : last(below);
+            int upper = above < 0 ? -1 : first(above);
+            if (count == 0) {
+                check(lower, upper);
+            } else {
+                check(lower, inserted[0]);
+                check(inserted[count - 1], upper);
+            }
+            root = merge(merge(below, tree), above);
+        }
+
+        /**
+         * Returns -1 if a segment lies below the event, 0 if it goes
+         * through it and 1 if it lies above it.
+         */
+        private int classify(int s) {
+            double x0 = aX[s], y0 = aY[s], x1 = bX[s], y1 = bY[s];
+            if (x0 == x1) {
+                // Only in the status while the event has the same x.
+                return compareY(y1) > 0 ? -1 : compareY(y0) < 0 ? 1 : 0;
+            }
+            if (pErrorX == 0 && pErrorY == 0) {
+                double side = Predicates.orient(x0, y0, x1, y1, pX, pY);
+                return side > 0 ? -1 : side < 0 ? 1 : 0;
+            }
+            if (s == pS || s == pT) {
+                // The crossing lies on both of its segments.
+                return 0;
+            }
+            double dX = x1 - x0, dY = y1 - y0;
+            double l = dX * (pY - y0), r = dY * (pX - x0);
+            double side = l - r;
+            double bound = (Math.abs(dX) * pErrorY + Math.abs(dY) * pErrorX) * (1 + 8 * EPSILON) +
+                    8 * EPSILON * (Math.abs(l) + Math.abs(r));
+            if (side > bound) {
+                return -1;
+            } else if (side < -bound) {
+                return 1;
+            }
+            BigDecimal[] p = exactEvent();
+            BigDecimal sX = new BigDecimal(x0), sY = new BigDecimal(y0);
+            int exact = new BigDecimal(x1).subtract(sX).multiply(p[1].subtract(sY.multiply(p[2])))
+                    .subtract(new BigDecimal(y1).subtract(sY).multiply(p[0].subtract(sX.multiply(p[2]))))
+                    .signum();
+            return -exact;
+        }
+
+        /**
+         * Compares the y value of the event, which has the same x as a
+         * vertical segment, with y.
+         */
+        private int compareY(double y) {
+            if (pY + pErrorY < y || pY - pErrorY > y || (pErrorX == 0 && pErrorY == 0)) {
+                return Double.compare(pY, y);
+            }
+            BigDecimal[] p = exactEvent();
+            return p[1].compareTo(new BigDecimal(y).multiply(p[2]));
+        }
+
+        /**
+         * Returns true if segment s lies below segment t just after the
+         * event, where both go through it.
+         */
+        private boolean lower(int s, int t) {
+            // Both leave the event to the right, or straight up, so the
+            // end of t tells on which side of s it continues.
+            double side = Predicates.orient(aX[s], aY[s], bX[s], bY[s], bX[t], bY[t]);
+            return side != 0 ? side > 0 : s < t;
+        }
+
+        /**
+         * Tests two neighbouring segments, s below t, and queues their
+         * crossing, which lies after the event.
+         */
+        private void check(int s, int t) {
+            if (s < 0 || t < 0) {
+                return;
+            }
+            double o1 = Predicates.orient(aX[s], aY[s], bX[s], bY[s], aX[t], aY[t]);
+            double o2 = Predicates.orient(aX[s], aY[s], bX[s], bY[s], bX[t], bY[t]);
+            double o3 = Predicates.orient(aX[t], aY[t], bX[t], bY[t], aX[s], aY[s]);
+            double o4 = Predicates.orient(aX[t], aY[t], bX[t], bY[t], bX[s], bY[s]);
+            // Segments that touch are found at the endpoint where they
+            // touch, and s ends above t only if they still have to cross.
+            if (o1 == 0 || o2 == 0 || o3 >= 0 || o4 <= 0 || (o1 > 0) == (o2 > 0)) {
+                return;
+            }
+            cross(s, t);
+            report(s, t, crossX, crossY);
+            push(s, t);
+        }
+
+        /**
+         * Rounds the crossing of two segments that cross properly into
+         * crossX and crossY, and bounds their rounding errors by
+         * crossErrorX and crossErrorY.
+         */
+        private void cross(int s, int t) {
+            double tX = bX[t] - aX[t], tY = bY[t] - aY[t];
+            double l3 = tX * (aY[s] - aY[t]), r3 = tY * (aX[s] - aX[t]);
+            double l4 = tX * (bY[s] - aY[t]), r4 = tY * (bX[s] - aX[t]);
+            double o3 = l3 - r3, o4 = l4 - r4;
+            double e3 = 8 * EPSILON * (Math.abs(l3) + Math.abs(r3));
+            double e4 = 8 * EPSILON * (Math.abs(l4) + Math.abs(r4));
+            // Both sides have opposite signs, so the denominator does not
+            // cancel unless both are within their errors of zero.
+            double denominator = o3 - o4;
+            double e = e3 + e4 + EPSILON * Math.abs(denominator);
+            double x, y, error;
+            if (Math.abs(denominator) > 4 * e) {
+                double f = o3 / denominator;
+                double fError = (e3 + Math.abs(f) * e) / (Math.abs(denominator) - e) +
+                        4 * EPSILON * Math.abs(f);
+                double dX = bX[s] - aX[s], dY = bY[s] - aY[s];
+                x = aX[s] + dX * f;
+                y = aY[s] + dY * f;
+                error = 2 * ((Math.abs(dX) + Math.abs(dY)) * fError +
+                        4 * EPSILON * (Math.abs(aX[s]) + Math.abs(aY[s]) + Math.abs(dX) + Math.abs(dY)));
+            } else {
+                BigDecimal[] p = exact(s, t);
+                x = p[0].divide(p[2], MathContext.DECIMAL128).doubleValue();
+                y = p[1].divide(p[2], MathContext.DECIMAL128).doubleValue();
+                error = Math.ulp(x) + Math.ulp(y);
+            }
+            // Both lie on both segments, so this only makes it closer.
+            crossX = Math.max(Math.max(aX[s], aX[t]), Math.min(Math.min(bX[s], bX[t]), x));
+            crossY = Math.max(Math.max(Math.min(aY[s], bY[s]), Math.min(aY[t], bY[t])),
+                    Math.min(Math.min(Math.max(aY[s], bY[s]), Math.max(aY[t], bY[t])), y));
+            // Exact where one of them is vertical or horizontal.
+            crossErrorX = crossX == Math.min(bX[s], bX[t]) && crossX == Math.max(aX[s], aX[t]) ?
+                    0 : Math.max(error, Double.MIN_VALUE);
+            crossErrorY = crossY == Math.max(Math.min(aY[s], bY[s]), Math.min(aY[t], bY[t])) &&
+                    crossY == Math.min(Math.max(aY[s], bY[s]), Math.max(aY[t], bY[t])) ?
+                    0 : Math.max(error, Double.MIN_VALUE);
+        }
+
+        /**
+         * Returns the crossing of two segments exactly, as x and y
+         * numerators and a positive denominator.
+         */
+        private BigDecimal[] exact(int s, int t) {
+            BigDecimal sX = new BigDecimal(aX[s]), sY = new BigDecimal(aY[s]);
+            BigDecimal eX = new BigDecimal(bX[s]), eY = new BigDecimal(bY[s]);
+            BigDecimal o3 = orient(t, sX, sY), o4 = orient(t, eX, eY);
+            // The crossing is s + (e - s) o3 / (o3 - o4).
+            BigDecimal denominator = o3.subtract(o4);
+            BigDecimal x = sX.multiply(denominator).add(eX.subtract(sX).multiply(o3));
+            BigDecimal y = sY.multiply(denominator).add(eY.subtract(sY).multiply(o3));
+            if (denominator.signum() < 0) {
+                return new BigDecimal[] {x.negate(), y.negate(), denominator.negate()};
+            }
+            return new BigDecimal[] {x, y, denominator};
+        }
+
+        private BigDecimal orient(int t, BigDecimal x, BigDecimal y) {
+            BigDecimal tX = new BigDecimal(aX[t]).subtract(x);
+            BigDecimal tY = new BigDecimal(aY[t]).subtract(y);
+            BigDecimal uX = new BigDecimal(bX[t]).subtract(x);
+            BigDecimal uY = new BigDecimal(bY[t]).subtract(y);
+            return tX.multiply(uY).subtract(tY.multiply(uX));
+        }
+
+        private BigDecimal[] exactEvent() {
+            if (pExact == null) {
+                pExact = exact(pX, pY, pErrorX, pErrorY, pS, pT);
+            }
+            return pExact;
+        }
+
+        private BigDecimal[] exact(double x, double y, double errorX, double errorY, int s, int t) {
+            if (errorX == 0 && errorY == 0) {
+                return new BigDecimal[] {new BigDecimal(x), new BigDecimal(y), BigDecimal.ONE};
+            }
+            return exact(s, t);
+        }
+
+        /**
+         * Compares crossing i of the heap with an event, which is the
+         * crossing of segments s and t unless both errors are zero, by
+         * x and then y.
+         */
+        private int compare(int i, double x, double y, double errorX, double errorY, int s, int t) {
+            double x0 = heapX[i], y0 = heapY[i], errorX0 = heapErrorX[i], errorY0 = heapErrorY[i];
+            if (x0 + errorX0 < x - errorX) {
+                return -1;
+            } else if (x + errorX < x0 - errorX0) {
+                return 1;
+            } else if (heapS[i] == s && heapT[i] == t) {
+                // The same crossing, queued again.
+                return 0;
+            } else if (errorX0 == 0 && errorX == 0) {
+                // The same x, compare the y values.
+                if (y0 + errorY0 < y - errorY) {
+                    return -1;
+                } else if (y + errorY < y0 - errorY0) {
+                    return 1;
+                } else if (errorY0 == 0 && errorY == 0) {
+                    return 0;
+                }
+            }
+            BigDecimal[] p = exact(x0, y0, errorX0, errorY0, heapS[i], heapT[i]);
+            BigDecimal[] q = exact(x, y, errorX, errorY, s, t);
+            int c = p[0].multiply(q[2]).compareTo(q[0].multiply(p[2]));
+            return c != 0 ? c : p[1].multiply(q[2]).compareTo(q[1].multiply(p[2]));
+        }
+
+        private void report(int s, int t, double x, double y) {
+            if (ring != null && neighbours(s, t)) {
+                return;
+            }
+            if (any) {
+                found = true;
+                return;
+            }
+            if (records == recordPairs.length) {
+                recordPairs = Arrays.copyOf(recordPairs, records * 2);
+                recordX = Arrays.copyOf(recordX, records * 2);
+                recordY = Arrays.copyOf(recordY, records * 2);
+            }
+            recordPairs[records] = ((long) Math.min(s, t) << 32) | Math.max(s, t);
+            recordX[records] = x;
+            recordY[records] = y;
+            records++;
+        }
+
+        /**
+         * Returns true if two edges of the ring are neighbours that only
+         * share their common vector.
+         */
+        private boolean neighbours(int s, int t) {
+            int previous, next;
+            if (t == s + 1 || (s == n - 1 && t == 0)) {
+                previous = s;
+                next = t;
+            } else if (s == t + 1 || (t == n - 1 && s == 0)) {
+                previous = t;
+                next = s;
+            } else {
+                return false;
+            }
+            // Neither may reach back over the other from the shared vector.
+            int far = next + 1 == n ? 0 : next + 1;
+            return !onEdge(previous, next) && !onEdge(far, previous);
+        }
+
+        /**
+         * Returns true if a vector of the ring lies on a segment.
+         */
+        private boolean onEdge(int vector, int s) {
+            double x = ring[vector * 2], y = ring[vector * 2 + 1];
+            return Predicates.orient(aX[s], aY[s], bX[s], bY[s], x, y) == 0 &&
+                    !before(x, y, aX[s], aY[s]) && !before(bX[s], bY[s], x, y);
+        }
+
+        /**
+         * Splits a tree into the segments that classify below bound,
+         * into low, and the others, into high.
+         */
+        private void split(int tree, int bound) {
+            if (tree < 0) {
+                low = high = -1;
+            } else if (classify(tree) < bound) {
+                split(right[tree], bound);
+                right[tree] = low;
+                low = tree;
+            } else {
+                split(left[tree], bound);
+                left[tree] = high;
+                high = tree;
+            }
+        }
+
+        private int merge(int a, int b) {
+            if (a < 0) {
+                return b;
+            }
+            if (b < 0) {
+                return a;
+            }
+            if (priority[a] > priority[b]) {
+                right[a] = merge(right[a], b);
+                return a;
+            }
+            left[b] = merge(a, left[b]);
+            return b;
+        }
+
+        private void collect(int tree) {
+            if (tree < 0) {
+                return;
+            }
+            collect(left[tree]);
+            if (middleSize == middle.length) {
+                middle = Arrays.copyOf(middle, middleSize * 2);
+            }
+            middle[middleSize++] = tree;
+            collect(right[tree]);
+        }
+
+        private int first(int tree) {
+            while (left[tree] >= 0) {
+                tree = left[tree];
+            }
+            return tree;
+        }
+
+        private int last(int tree) {
+            while (right[tree] >= 0) {
+                tree = right[tree];
+            }
+            return tree;
+        }
+
+        private boolean precedes(int i, int j) {
+            return compare(i, heapX[j], heapY[j], heapErrorX[j], heapErrorY[j], heapS[j], heapT[j]) < 0;
+        }
+
+        /**
+         * Queues the crossing of s and t, as left by cross().
+         */
+        private void push(int s, int t) {
+            if (heapSize == heapX.length) {
+                int length = heapSize * 2;
+                heapX = Arrays.copyOf(heapX, length);
+                heapY = Arrays.copyOf(heapY, length);
+                heapErrorX = Arrays.copyOf(heapErrorX, length);
+                heapErrorY = Arrays.copyOf(heapErrorY, length);
+                heapS = Arrays.copyOf(heapS, length);
+                heapT = Arrays.copyOf(heapT, length);
+            }
+            int i = heapSize++;
+            heapX[i] = crossX;
+            heapY[i] = crossY;
+            heapErrorX[i] = crossErrorX;
+            heapErrorY[i] = crossErrorY;
+            heapS[i] = s;
+            heapT[i] = t;
+            while (i > 0 && precedes(i, (i - 1) / 2)) {
+                swapHeap(i, (i - 1) / 2);
+                i = (i - 1) / 2;
+            }
+        }
+
+        private void pop() {
+            heapSize--;
+            swapHeap(0, heapSize);
+            int i = 0;
+            while (true) {
+                int child = i * 2 + 1;
+                if (child >= heapSize) {
+                    break;
+                }
+                if (child + 1 < heapSize && precedes(child + 1, child)) {
+                    child++;
+                }
+                if (!precedes(child, i)) {
+                    break;
+                }
+                swapHeap(i, child);
+                i = child;
+            }
+        }
+
+        private void swapHeap(int i, int j) {
+            double x = heapX[i], y = heapY[i], errorX = heapErrorX[i], errorY = heapErrorY[i];
+            int s = heapS[i], t = heapT[i];
+            heapX[i] = heapX[j];
+            heapY[i] = heapY[j];
+            heapErrorX[i] = heapErrorX[j];
+            heapErrorY[i] = heapErrorY[j];
+            heapS[i] = heapS[j];
+            heapT[i] = heapT[j];
+            heapX[j] = x;
+            heapY[j] = y;
+            heapErrorX[j] = errorX;
+            heapErrorY[j] = errorY;
+            heapS[j] = s;
+            heapT[j] = t;
+        }
+    }
+
+    /**
+     * Returns true if (x0, y0) comes before (x1, y1), by x and then y.
+     */
+    private static boolean before(double x0, double y0, double x1, double y1) {
+        return x0 < x1 || (x0 == x1 && y0 < y1);
+    }
+
+    private static int compare(long[] keys, double[] xs, double[] ys, int i, int j) {
+        if (keys != null && keys[i] != keys[j]) {
+            return keys[i] < keys[j] ? -1 : 1;
+        }
+        int c = Double.compare(xs[i], xs[j]);
+        return c != 0 ? c : Double.compare(ys[i], ys[j]);
+    }
+
+    /**
+     * Sorts ids from left up to right by key, then x, then y.
+     */
+    private static void sort(int[] ids, long[] keys, double[] xs, double[] ys, int left, int right) {
+        while (right - left > 16) {
+            // Median of three as pivot.
+            int middle = (left + right) >>> 1;
+            if (compare(keys, xs, ys, ids[middle], ids[left]) < 0) {
+                swap(ids, middle, left);
+            }
+            if (compare(keys, xs, ys, ids[right], ids[left]) < 0) {
+                swap(ids, right, left);
+            }
+            if (compare(keys, xs, ys, ids[right], ids[middle]) < 0) {
+                swap(ids, right, middle);
+            }
+            int pivot = ids[middle];
+            int i = left, j = right;
+            while (i <= j) {
+                while (compare(keys, xs, ys, ids[i], pivot) < 0) {
+                    i++;
+                }
+                while (compare(keys, xs, ys, ids[j], pivot) > 0) {
+                    j--;
+                }
+                if (i <= j) {
+                    swap(ids, i++, j--);
+                }
+            }
+            // Recurse into the smaller part, loop over the larger one.
+            if (j - left < right - i) {
+                sort(ids, keys, xs, ys, left, j);
+                left = i;
+            } else {
+                sort(ids, keys, xs, ys, i, right);
+                right = j;
+            }
+        }
+        for (int i = left + 1; i <= right; i++) {
+            int id = ids[i];
+            int j = i - 1;
+            while (j >= left && compare(keys, xs, ys, ids[j], id) > 0) {
+                ids[j + 1] = ids[j];
+                j--;
+            }
+            ids[j + 1] = id;
+        }
+    }
+
+    private static void swap(int[] ids, int i, int j) {
+        int t = ids[i];
+        ids[i] = ids[j];
+        ids[j] = t;
+    }
+}
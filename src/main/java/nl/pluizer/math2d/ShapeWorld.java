@@ -0,0 +1,377 @@
+package nl.pluizer.math2d;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The ShapeWorld class holds the rectangles and circles of many bodies,
+ * updated by one thread and read by any number of other threads at
+ * the same time.
+ *
+ * Bodies have an id from zero up to the capacity of the world. The
+ * writer changes them with the set, move and remove methods and then
+ * calls {@link #publish()}, which copies them into a {@link Snapshot}
+ * and makes that the current one. Readers {@link #acquire()} the
+ * current snapshot, which never changes while they hold it, and
+ * {@link Snapshot#release()} it when done. Readers never block on the
+ * writer or on each other, and the writer never waits for readers.
+ * Reads are lock-free, not wait-free: acquire() retries when the
+ * snapshot it read was recycled before it could count itself as a
+ * reader, which takes two publishes within that short window.
+ *
+ * Snapshots are recycled once their last reader released them, so a
+ * world usually allocates only two or three of them, no matter how
+ * often it publishes. Only readers that hold on to old snapshots make
+ * the writer allocate a new one. The shapes are stored in primitive
+ * arrays, so no updates allocate.
+ *
+ * @author Richard van Roy
+ */
+public class ShapeWorld {
+
+    private static final byte NONE = 0, RECTANGLE = 1, CIRCLE = 2;
+
+    // The reader count of a snapshot that is being rewritten.
+    private static final int RECLAIMED = Integer.MIN_VALUE / 2;
+
+    /**
+     * The Snapshot class is an unchanging copy of all bodies as they
+     * were when it was published. It must not be used after it is
+     * released.
+     */
+    public static final class Snapshot {
+
+        final private AtomicInteger readers = new AtomicInteger(RECLAIMED);
+
+        // Per body: left, bottom, right, top or centre x, y, radius.
+        final private double[] shapes;
+        final private byte[] kinds;
+
+        private int size;
+        private long epoch;
+
+        private Snapshot(int capacity) {
+            shapes = new double[capacity * 4];
+            kinds = new byte[capacity];
+        }
+
+        /**
+         * Lets the world recycle this snapshot once all its other
+         * readers are done.
+         */
+        public void release() {
+            readers.decrementAndGet();
+        }
+
+        /**
+         * @return              the number of publishes up to this
+         *                      snapshot, zero for the empty one
+         */
+        public long getEpoch() {
+            return epoch;
+        }
+
+        /**
+         * @return              one more than the highest id in use
+         */
+        public int size() {
+            return size;
+        }
+
+        /**
+         * @param id            the id of a body
+         * @return              true if the body exists
+         */
+        public boolean contains(int id) {
+            return id < size && kinds[id] != NONE;
+        }
+
+        /**
+         * @param id            the id of a body
+         * @return              true if the body is a circle
+         */
+        public boolean isCircle(int id) {
+            return id < size && kinds[id] == CIRCLE;
+        }
+
+        /**
+         * @param id            the id of a body
+         * @return              true if the body is a rectangle
+         */
+        public boolean isRectangle(int id) {
+            return id < size && kinds[id] == RECTANGLE;
+        }
+
+        /**
+         * Returns the shape of a body as a rectangle.
+         * @param id            the id of a rectangle body
+         * @return              a new rectangle
+         */
+        public Rectangle getRectangle(int id) {
+            if (!isRectangle(id)) {
+                throw new IllegalArgumentException("Body " + id + " is not a rectangle.");
+            }
+            return Rectangle.fromBounds(shapes[id * 4], shapes[id * 4 + 1],
+                    shapes[id * 4 + 2], shapes[id * 4 + 3]);
+        }
+
+        /**
+         * Returns the shape of a body as a circle.
+         * @param id            the id of a circle body
+         * @return              a new circle
+         */
+        public Circle getCircle(int id) {
+            if (!isCircle(id)) {
+                throw new IllegalArgumentException("Body " + id + " is not a circle.");
+            }
+            return new Circle(new Vector(shapes[id * 4], shapes[id * 4 + 1]), shapes[id * 4 + 2]);
+        }
+
+        /**
+         * Returns the bounding box of a body.
+         * @param id            the id of a body
+         * @return              a new rectangle
+         */
+        public Rectangle getBounds(int id) {
+            if (isCircle(id)) {
+                double r = shapes[id * 4 + 2];
+                return Rectangle.fromBounds(shapes[id * 4] - r, shapes[id * 4 + 1] - r,
+                        shapes[id * 4] + r, shapes[id * 4 + 1] + r);
+            }
+            return getRectangle(id);
+        }
+
+        /**
+         * Finds the bodies whose shapes overlap a region. Circles are
+         * tested exactly, not by their bounding boxes.
+         * @param minX          the left of the region
+         * @param minY          the bottom of the region
+         * @param maxX          the right of the region
+         * @param maxY          the top of the region
+         * @param out           receives the ids of the first bodies
+         *                      found, as many as fit
+         * @return              the number of bodies found, which may be
+         *                      more than out holds
+         */
+        public int query(double minX, double minY, double maxX, double maxY, int[] out) {
+            int found = 0;
+            double[] s = shapes;
+            for (int i = 0; i < size; i++) {
+                byte kind = kinds[i];
+                boolean hit;
+                if (kind == RECTANGLE) {
+                    hit = s[i * 4] <= maxX && minX <= s[i * 4 + 2] &&
+                            s[i * 4 + 1] <= maxY && minY <= s[i * 4 + 3];
+                } else if (kind == CIRCLE) {
+                    double x = s[i * 4], y = s[i * 4 + 1], r = s[i * 4 + 2];
+                    double dX = x - Math.max(minX, Math.min(maxX, x));
+                    double dY = y - Math.max(minY, Math.min(maxY, y));
+                    hit = dX * dX + dY * dY <= r * r;
+                } else {
+                    continue;
+                }
+                if (hit) {
+                    if (found < out.length) {
+                        out[found] = i;
+                    }
+                    found++;
+                }
+            }
+            return found;
+        }
+
+        /**
+         * Finds the bodies whose shapes overlap a region.
+         * @see #query(double, double, double, double, int[])
+         * @param region        the region
+         * @param out           receives the ids of the bodies found
+         * @return              the number of bodies found
+         */
+        public int query(Rectangle region, int[] out) {
+            return query(Math.min(region.getLeft(), region.getRight()),
+                    Math.min(region.getBottom(), region.getTop()),
+                    Math.max(region.getLeft(), region.getRight()),
+                    Math.max(region.getBottom(), region.getTop()), out);
+        }
+    }
+
+    final private int capacity;
+
+    // The state of the writer, copied into a snapshot on publish.
+    final private double[] shapes;
+    final private byte[] kinds;
+    private int size;
+    private long epoch;
+
+    // Published snapshots that may still have readers.
+    final private List<Snapshot> retired = new ArrayList<>();
+
+    private volatile Snapshot current;
+
+    /**
+     * Creates an empty world.
+     * @param capacity      the maximum number of bodies
+     */
+    public ShapeWorld(int capacity) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("The capacity can not be negative.");
+        }
+        this.capacity = capacity;
+        this.shapes = new double[capacity * 4];
+        this.kinds = new byte[capacity];
+        this.current = revive(new Snapshot(capacity));
+    }
+
+    /**
+     * @return              the maximum number of bodies
+     */
+    public int capacity() {
+        return capacity;
+    }
+
+    private void check(int id) {
+        if (id < 0 || id >= capacity) {
+            throw new IllegalArgumentException("No body " + id + " in a world of " + capacity + ".");
+        }
+    }
+
+    private void put(int id, byte kind, double a, double b, double c, double d) {
+        check(id);
+        kinds[id] = kind;
+        shapes[id * 4] = a;
+        shapes[id * 4 + 1] = b;
+        shapes[id * 4 + 2] = c;
+        shapes[id * 4 + 3] = d;
+        if (id >= size) {
+            size = id + 1;
+        }
+    }
+
+    /**
+     * Sets the shape of a body to a rectangle. Only for the writer.
+     * @param id            the id of the body
+     * @param minX          the left of the rectangle
+     * @param minY          the bottom of the rectangle
+     * @param maxX          the right of the rectangle
+     * @param maxY          the top of the rectangle
+     */
+    public void setRectangle(int id, double minX, double minY, double maxX, double maxY) {
+        put(id, RECTANGLE, Math.min(minX, maxX), Math.min(minY, maxY),
+                Math.max(minX, maxX), Math.max(minY, maxY));
+    }
+
+    /**
+     * Sets the shape of a body to a rectangle. Only for the writer.
+     * @param id            the id of the body
+     * @param rectangle     the rectangle
+     */
+    public void setRectangle(int id, Rectangle rectangle) {
+        setRectangle(id, rectangle.getLeft(), rectangle.getBottom(),
+                rectangle.getRight(), rectangle.getTop());
+    }
+
+    /**
+     * Sets the shape of a body to a circle. Only for the writer.
+     * @param id            the id of the body
+     * @param centreX       the x value of the centre
+     * @param centreY       the y value of the centre
+     * @param radius        the radius
+     */
+    public void setCircle(int id, double centreX, double centreY, double radius) {
+        put(id, CIRCLE, centreX, centreY, radius, 0);
+    }
+
+    /**
+     * Sets the shape of a body to a circle. Only for the writer.
+     * @param id            the id of the body
+     * @param circle        the circle
+     */
+    public void setCircle(int id, Circle circle) {
+        setCircle(id, circle.getCentre().getX(), circle.getCentre().getY(), circle.getRadius());
+    }
+
+    /**
+     * Moves a body. Only for the writer.
+     * @param id            the id of the body
+     * @param x             the distance along the x axis
+     * @param y             the distance along the y axis
+     */
+    public void move(int id, double x, double y) {
+        check(id);
+        if (kinds[id] == RECTANGLE) {
+            shapes[id * 4] += x;
+            shapes[id * 4 + 1] += y;
+            shapes[id * 4 + 2] += x;
+            shapes[id * 4 + 3] += y;
+        } else if (kinds[id] == CIRCLE) {
+            shapes[id * 4] += x;
+            shapes[id * 4 + 1] += y;
+        }
+    }
+
+    /**
+     * Removes a body. Only for the writer.
+     * @param id            the id of the body
+     */
+    public void remove(int id) {
+        check(id);
+        kinds[id] = NONE;
+        while (size > 0 && kinds[size - 1] == NONE) {
+            size--;
+        }
+    }
+
+    /**
+     * Makes all changes since the last publish visible to readers at
+     * once. Only for the writer.
+     */
+    public void publish() {
+        Snapshot next = reclaim();
+        System.arraycopy(shapes, 0, next.shapes, 0, size * 4);
+        System.arraycopy(kinds, 0, next.kinds, 0, size);
+        next.size = size;
+        next.epoch = ++epoch;
+        Snapshot previous = current;
+        current = revive(next);
+        retired.add(previous);
+    }
+
+    /**
+     * Returns the latest published snapshot, which must be released
+     * after use. Safe to call from any thread. Lock-free: it only
+     * retries when the writer published twice in the meantime.
+     * @return              the current snapshot
+     */
+    public Snapshot acquire() {
+        while (true) {
+            Snapshot snapshot = current;
+            if (snapshot.readers.getAndIncrement() >= 0) {
+                return snapshot;
+            }
+            // Recycled after it was read, a newer one is published.
+            snapshot.readers.decrementAndGet();
+        }
+    }
+
+    /**
+     * Returns a retired snapshot without readers, or a new one.
+     */
+    private Snapshot reclaim() {
+        for (int i = retired.size() - 1; i >= 0; i--) {
+            Snapshot snapshot = retired.get(i);
+            if (snapshot.readers.compareAndSet(0, RECLAIMED)) {
+                retired.set(i, retired.get(retired.size() - 1));
+                retired.remove(retired.size() - 1);
+                return snapshot;
+            }
+        }
+        return new Snapshot(capacity);
+    }
+
+    private static Snapshot revive(Snapshot snapshot) {
+        // Keeps the counts of readers that still have to back off.
+        snapshot.readers.addAndGet(-RECLAIMED);
+        return snapshot;
+    }
+}
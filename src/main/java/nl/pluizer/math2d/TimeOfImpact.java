@@ -0,0 +1,300 @@
+package nl.pluizer.math2d;
+
+import java.util.stream.IntStream;
+
+/**
+ * The TimeOfImpact class finds when moving shapes first touch, so fast
+ * shapes cannot tunnel through thin ones between two steps.
+ *
+ * A shape moves from its position by a displacement during one step.
+ * Like {@link Rectangle#segmentQuery(Vector, Vector)} every method
+ * returns the fraction of the step at which the shapes first touch, or
+ * Double.POSITIVE_INFINITY if they do not touch during the step. Shapes
+ * that already overlap at the start touch at 0.
+ *
+ * Every pair is solved as a ray against the Minkowski sum of both
+ * shapes: a rectangle grown by the other's half size, two circles
+ * joined into one, or a rectangle with rounded corners for a circle and
+ * a rectangle.
+ *
+ * @author Richard van Roy
+ */
+public final class TimeOfImpact {
+
+    // Batches with more pairs than this run on all cores.
+    private static final int PARALLEL_THRESHOLD = 1 << 16;
+
+    private TimeOfImpact() {
+    }
+
+    /**
+     * Returns when a moving circle first touches a rectangle.
+     * @param circle        the circle at the start of the step
+     * @param displacement  the movement of the circle during the step
+     * @param rectangle     the rectangle, which does not move
+     * @return              the fraction of the step, or
+     *                      Double.POSITIVE_INFINITY
+     */
+    public static double circleRectangle(Circle circle, Vector displacement, Rectangle rectangle) {
+        return circleBox(circle.getCentre().getX(), circle.getCentre().getY(), circle.getRadius(),
+                displacement.getX(), displacement.getY(),
+                Math.min(rectangle.getLeft(), rectangle.getRight()),
+                Math.min(rectangle.getBottom(), rectangle.getTop()),
+                Math.max(rectangle.getLeft(), rectangle.getRight()),
+                Math.max(rectangle.getBottom(), rectangle.getTop()));
+    }
+
+    /**
+     * Returns when two moving rectangles first touch.
+     * @param a             the first rectangle at the start of the step
+     * @param displacementA the movement of the first rectangle
+     * @param b             the second rectangle at the start of the step
+     * @param displacementB the movement of the second rectangle
+     * @return              the fraction of the step, or
+     *                      Double.POSITIVE_INFINITY
+     */
+    public static double rectangleRectangle(Rectangle a, Vector displacementA,
+                                            Rectangle b, Vector displacementB) {
+        return boxBox(Math.min(a.getLeft(), a.getRight()), Math.min(a.getBottom(), a.getTop()),
+                Math.max(a.getLeft(), a.getRight()), Math.max(a.getBottom(), a.getTop()),
+                displacementA.getX() - displacementB.getX(),
+                displacementA.getY() - displacementB.getY(),
+                Math.min(b.getLeft(), b.getRight()), Math.min(b.getBottom(), b.getTop()),
+                Math.max(b.getLeft(), b.getRight()), Math.max(b.getBottom(), b.getTop()));
+    }
+
+    /**
+     * Returns when two moving circles first touch.
+     * @param a             the first circle at the start of the step
+     * @param displacementA the movement of the first circle
+     * @param b             the second circle at the start of the step
+     * @param displacementB the movement of the second circle
+     * @return              the fraction of the step, or
+     *                      Double.POSITIVE_INFINITY
+     */
+    public static double circleCircle(Circle a, Vector displacementA,
+                                      Circle b, Vector displacementB) {
+        return rayCircle(a.getCentre().getX(), a.getCentre().getY(),
+                displacementA.getX() - displacementB.getX(),
+                displacementA.getY() - displacementB.getY(),
+                b.getCentre().getX(), b.getCentre().getY(), a.getRadius() + b.getRadius());
+    }
+
+    /**
+     * Finds for every moving circle the first rectangle it touches.
+     * @param circles       packed x, y, radius triples of the circles
+     * @param displacements packed x, y movements of the circles
+     * @param count         the number of circles
+     * @param rectangles    packed min x, min y, max x, max y of the
+     *                      rectangles, which do not move
+     * @param rectangleCount the number of rectangles
+     * @param times         receives for every circle the fraction of
+     *                      the step, or Double.POSITIVE_INFINITY
+     * @param hits          receives for every circle the index of the
+     *                      rectangle it touches first, or -1
+     */
+    public static void circlesRectangles(double[] circles, double[] displacements, int count,
+                                         double[] rectangles, int rectangleCount,
+                                         double[] times, int[] hits) {
+        range(count, rectangleCount).forEach(i -> {
+            double x = circles[i * 3], y = circles[i * 3 + 1], r = circles[i * 3 + 2];
+            double dX = displacements[i * 2], dY = displacements[i * 2 + 1];
+            // Bounds of the whole path, to skip rectangles quickly.
+            double minX = Math.min(x, x + dX) - r, maxX = Math.max(x, x + dX) + r;
+            double minY = Math.min(y, y + dY) - r, maxY = Math.max(y, y + dY) + r;
+            double best = Double.POSITIVE_INFINITY;
+            int hit = -1;
+            for (int j = 0; j < rectangleCount; j++) {
+                int o = j * 4;
+                if (rectangles[o] > maxX || rectangles[o + 2] < minX ||
+                        rectangles[o + 1] > maxY || rectangles[o + 3] < minY) {
+                    continue;
+                }
+                double t = circleBox(x, y, r, dX, dY,
+                        rectangles[o], rectangles[o + 1], rectangles[o + 2], rectangles[o + 3]);
+                if (t < best) {
+                    best = t;
+                    hit = j;
+                }
+            }
+            times[i] = best;
+            hits[i] = hit;
+        });
+    }
+
+    /**
+     * Finds for every moving rectangle the first other rectangle it
+     * touches.
+     * @param boxes         packed min x, min y, max x, max y of the
+     *                      moving rectangles
+     * @param displacements packed x, y movements of the rectangles
+     * @param count         the number of moving rectangles
+     * @param rectangles    packed min x, min y, max x, max y of the
+     *                      rectangles, which do not move
+     * @param rectangleCount the number of rectangles
+     * @param times         receives for every moving rectangle the
+     *                      fraction of the step, or
+     *                      Double.POSITIVE_INFINITY
+     * @param hits          receives for every moving rectangle the
+     *                      index of the rectangle it touches first,
+     *                      or -1
+     */
+    public static void rectanglesRectangles(double[] boxes, double[] displacements, int count,
+                                            double[] rectangles, int rectangleCount,
+                                            double[] times, int[] hits) {
+        range(count, rectangleCount).forEach(i -> {
+            double aMinX = boxes[i * 4], aMinY = boxes[i * 4 + 1];
+            double aMaxX = boxes[i * 4 + 2], aMaxY = boxes[i * 4 + 3];
+            double dX = displacements[i * 2], dY = displacements[i * 2 + 1];
+            double minX = aMinX + Math.min(0, dX), maxX = aMaxX + Math.max(0, dX);
+            double minY = aMinY + Math.min(0, dY), maxY = aMaxY + Math.max(0, dY);
+            double best = Double.POSITIVE_INFINITY;
+            int hit = -1;
+            for (int j = 0; j < rectangleCount; j++) {
+                int o = j * 4;
+                if (rectangles[o] > maxX || rectangles[o + 2] < minX ||
+                        rectangles[o + 1] > maxY || rectangles[o + 3] < minY) {
+                    continue;
+                }
+                double t = boxBox(aMinX, aMinY, aMaxX, aMaxY, dX, dY,
+                        rectangles[o], rectangles[o + 1], rectangles[o + 2], rectangles[o + 3]);
+                if (t < best) {
+                    best = t;
+                    hit = j;
+                }
+            }
+            times[i] = best;
+            hits[i] = hit;
+        });
+    }
+
+    /**
+     * Finds for every moving circle the first other circle it touches.
+     * @param circles       packed x, y, radius triples of the moving
+     *                      circles
+     * @param displacements packed x, y movements of the circles
+     * @param count         the number of moving circles
+     * @param others        packed x, y, radius triples of the circles
+     *                      that do not move
+     * @param otherCount    the number of circles that do not move
+     * @param times         receives for every moving circle the
+     *                      fraction of the step, or
+     *                      Double.POSITIVE_INFINITY
+     * @param hits          receives for every moving circle the index
+     *                      of the circle it touches first, or -1
+     */
+    public static void circlesCircles(double[] circles, double[] displacements, int count,
+                                      double[] others, int otherCount,
+                                      double[] times, int[] hits) {
+        range(count, otherCount).forEach(i -> {
+            double x = circles[i * 3], y = circles[i * 3 + 1], r = circles[i * 3 + 2];
+            double dX = displacements[i * 2], dY = displacements[i * 2 + 1];
+            double best = Double.POSITIVE_INFINITY;
+            int hit = -1;
+            for (int j = 0; j < otherCount; j++) {
+                int o = j * 3;
+                double t = rayCircle(x, y, dX, dY, others[o], others[o + 1], r + others[o + 2]);
+                if (t < best) {
+                    best = t;
+                    hit = j;
+                }
+            }
+            times[i] = best;
+            hits[i] = hit;
+        });
+    }
+
+    private static IntStream range(int count, int others) {
+        IntStream range = IntStream.range(0, count);
+        return (long) count * others >= PARALLEL_THRESHOLD ? range.parallel() : range;
+    }
+
+    /**
+     * A circle against a box is a ray against the box with rounded
+     * corners, the union of the box grown sideways, the box grown up
+     * and down, and a circle on every corner.
+     */
+    private static double circleBox(double x, double y, double r, double dX, double dY,
+                                    double minX, double minY, double maxX, double maxY) {
+        double t = rayBox(x, y, dX, dY, minX - r, minY - r, maxX + r, maxY + r);
+        if (t == Double.POSITIVE_INFINITY) {
+            return t;
+        }
+        double hX = x + dX * t, hY = y + dY * t;
+        if ((hX >= minX && hX <= maxX) || (hY >= minY && hY <= maxY)) {
+            // Entered through a side, not near a corner.
+            return t;
+        }
+        t = Math.min(rayBox(x, y, dX, dY, minX - r, minY, maxX + r, maxY),
+                rayBox(x, y, dX, dY, minX, minY - r, maxX, maxY + r));
+        t = Math.min(t, rayCircle(x, y, dX, dY, minX, minY, r));
+        t = Math.min(t, rayCircle(x, y, dX, dY, maxX, minY, r));
+        t = Math.min(t, rayCircle(x, y, dX, dY, minX, maxY, r));
+        return Math.min(t, rayCircle(x, y, dX, dY, maxX, maxY, r));
+    }
+
+    /**
+     * A box against a box is the centre of the first against the
+     * second grown by half the size of the first.
+     */
+    private static double boxBox(double aMinX, double aMinY, double aMaxX, double aMaxY,
+                                 double dX, double dY,
+                                 double bMinX, double bMinY, double bMaxX, double bMaxY) {
+        double halfWidth = (aMaxX - aMinX) * 0.5d, halfHeight = (aMaxY - aMinY) * 0.5d;
+        return rayBox(aMinX + halfWidth, aMinY + halfHeight, dX, dY,
+                bMinX - halfWidth, bMinY - halfHeight, bMaxX + halfWidth, bMaxY + halfHeight);
+    }
+
+    /**
+     * Slab test of the ray x + t*dX, y + t*dY for t in 0..1.
+     */
+    private static double rayBox(double x, double y, double dX, double dY,
+                                 double minX, double minY, double maxX, double maxY) {
+        double tMin = 0.0d, tMax = 1.0d;
+        if (dX == 0) {
+            if (x < minX || x > maxX) {
+                return Double.POSITIVE_INFINITY;
+            }
+        } else {
+            double inverse = 1.0d / dX;
+            double t1 = (minX - x) * inverse, t2 = (maxX - x) * inverse;
+            tMin = Math.max(tMin, Math.min(t1, t2));
+            tMax = Math.min(tMax, Math.max(t1, t2));
+        }
+        if (dY == 0) {
+            if (y < minY || y > maxY) {
+                return Double.POSITIVE_INFINITY;
+            }
+        } else {
+            double inverse = 1.0d / dY;
+            double t1 = (minY - y) * inverse, t2 = (maxY - y) * inverse;
+            tMin = Math.max(tMin, Math.min(t1, t2));
+            tMax = Math.min(tMax, Math.max(t1, t2));
+        }
+        return tMin <= tMax ? tMin : Double.POSITIVE_INFINITY;
+    }
+
+    /**
+     * The ray x + t*dX, y + t*dY for t in 0..1 against a circle.
+     */
+    private static double rayCircle(double x, double y, double dX, double dY,
+                                    double cX, double cY, double r) {
+        double fX = x - cX, fY = y - cY;
+        double c = fX * fX + fY * fY - r * r;
+        if (c <= 0) {
+            return 0.0d;
+        }
+        double b = fX * dX + fY * dY;
+        if (b >= 0) {
+            // Outside and moving away.
+            return Double.POSITIVE_INFINITY;
+        }
+        double a = dX * dX + dY * dY;
+        double discriminant = b * b - a * c;
+        if (discriminant < 0) {
+            return Double.POSITIVE_INFINITY;
+        }
+        double t = c / (-b + Math.sqrt(discriminant));
+        return t <= 1.0d ? t : Double.POSITIVE_INFINITY;
+    }
+}
@@ -9,6 +9,9 @@ public class Triangle implements Shape {
 
     final private Vector cornerA, cornerB, cornerC;
 
+    // Computed on first use, see massProperties().
+    private MassProperties massProperties;
+
     /**
      * Create a triangle from 3 vectors.
      * @param cornerA       the first vector
@@ -43,13 +46,13 @@ public class Triangle implements Shape {
     }
 
     /**
-     * Returns true if this triangle is defined in clockwise order.
+     * Returns true if this triangle is defined in clockwise order, or
+     * if its corners lie on a single line. The orientation is decided
+     * exactly, see {@link Predicates#orient(Vector, Vector, Vector)}.
      * @return              true if clockwise, false otherwise
      */
     public boolean clockwise() {
-        double pA = (cornerA.getX() - cornerB.getX()) * (cornerB.getY() - cornerC.getY());
-        double pB = (cornerA.getY() - cornerC.getY()) * (cornerB.getX() - cornerC.getX());
-        return pA - pB <= 0;
+        return Predicates.orient(cornerA, cornerB, cornerC) <= 0;
     }
 
     /**
@@ -69,4 +72,22 @@ public class Triangle implements Shape {
     public double getHeight() {
         return Rectangle.encapsulateTriangle(this).getWidth();
     }
+
+    /**
+     * Returns the area, centroid and moment of inertia of this
+     * triangle. They are computed once and then kept.
+     * @return              the mass properties of this triangle
+     */
+    public MassProperties massProperties() {
+        MassProperties result = massProperties;
+        if (result == null) {
+            result = MassProperties.polygon(new double[] {
+                    cornerA.getX(), cornerA.getY(),
+                    cornerB.getX(), cornerB.getY(),
+                    cornerC.getX(), cornerC.getY()}, 0, 3);
+            // Racing threads compute the same immutable value.
+            massProperties = result;
+        }
+        return result;
+    }
 }
@@ -0,0 +1,215 @@
+package nl.pluizer.math2d;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The VectorBuffer class stores a growing list of vectors as packed
+ * x, y pairs in a single double array. Unlike the other classes of this
+ * library it is mutable, so it can be cleared and refilled every frame
+ * without allocating a new vector for every point.
+ *
+ * @author Richard van Roy
+ */
+public class VectorBuffer {
+
+    private double[] coordinates;
+
+    private int size;
+
+    /**
+     * Creates an empty buffer.
+     */
+    public VectorBuffer() {
+        this(16);
+    }
+
+    /**
+     * Creates an empty buffer that can hold a number of vectors
+     * before it has to grow.
+     * @param capacity      the initial number of vectors
+     */
+    public VectorBuffer(int capacity) {
+        this.coordinates = new double[Math.max(2, capacity * 2)];
+    }
+
+    /**
+     * Creates a buffer from packed coordinates.
+     * @param coordinates   the x, y pairs to copy
+     */
+    public VectorBuffer(double[] coordinates) {
+        if (coordinates.length % 2 != 0) {
+            throw new IllegalArgumentException("Need an even number of coordinates.");
+        }
+        this.coordinates = Arrays.copyOf(coordinates, Math.max(2, coordinates.length));
+        this.size = coordinates.length / 2;
+    }
+
+    /**
+     * Creates a buffer from a list of vectors.
+     * @param vectors       the vectors to copy
+     */
+    public VectorBuffer(List<Vector> vectors) {
+        this(vectors.size());
+        addAll(vectors);
+    }
+
+    /**
+     * Creates a buffer from the vectors of a polygon.
+     * @param polygon       the polygon to copy
+     */
+    public VectorBuffer(Polygon polygon) {
+        this(polygon.getVectors());
+    }
+
+    /**
+     * @return              the number of vectors in this buffer
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return              true if this buffer holds no vectors
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * @param index         the index of the vector
+     * @return              the x value of the vector at index
+     */
+    public double getX(int index) {
+        return coordinates[index * 2];
+    }
+
+    /**
+     * @param index         the index of the vector
+     * @return              the y value of the vector at index
+     */
+    public double getY(int index) {
+        return coordinates[index * 2 + 1];
+    }
+
+    /**
+     * Returns the vector at an index.
+     * @param index         the index of the vector
+     * @return              a new vector
+     */
+    public Vector get(int index) {
+        return new Vector(getX(index), getY(index));
+    }
+
+    /**
+     * Replaces the vector at an index.
+     * @param index         the index of the vector
+     * @param x             the new x value
+     * @param y             the new y value
+     */
+    public void set(int index, double x, double y) {
+        coordinates[index * 2] = x;
+        coordinates[index * 2 + 1] = y;
+    }
+
+    /**
+     * Appends a vector to this buffer.
+     * @param x             the x value
+     * @param y             the y value
+     */
+    public void add(double x, double y) {
+        ensureCapacity(size + 1);
+        coordinates[size * 2] = x;
+        coordinates[size * 2 + 1] = y;
+        size++;
+    }
+
+    /**
+     * Appends a vector to this buffer.
+     * @param vector        the vector to append
+     */
+    public void add(Vector vector) {
+        add(vector.getX(), vector.getY());
+    }
+
+    /**
+     * Appends all vectors of a list to this buffer.
+     * @param vectors       the vectors to append
+     */
+    public void addAll(List<Vector> vectors) {
+        ensureCapacity(size + vectors.size());
+        for (Vector v : vectors) {
+            coordinates[size * 2] = v.getX();
+            coordinates[size * 2 + 1] = v.getY();
+            size++;
+        }
+    }
+
+    /**
+     * Appends all vectors of another buffer to this buffer.
+     * @param other         the buffer to append
+     */
+    public void addAll(VectorBuffer other) {
+        ensureCapacity(size + other.size);
+        System.arraycopy(other.coordinates, 0, coordinates, size * 2, other.size * 2);
+        size += other.size;
+    }
+
+    /**
+     * Removes all vectors, but keeps the allocated memory so the
+     * buffer can be refilled without allocating.
+     */
+    public void clear() {
+        size = 0;
+    }
+
+    /**
+     * Makes sure this buffer can hold a number of vectors without
+     * having to grow.
+     * @param capacity      the number of vectors
+     */
+    public void ensureCapacity(int capacity) {
+        if (capacity * 2 > coordinates.length) {
+            coordinates = Arrays.copyOf(coordinates,
+                    Math.max(capacity * 2, coordinates.length * 2));
+        }
+    }
+
+    /**
+     * Returns the backing array of this buffer. Only the first
+     * <code>size() * 2</code> values are in use and the array is
+     * replaced when the buffer grows.
+     * @return              the packed x, y pairs
+     */
+    public double[] getCoordinates() {
+        return coordinates;
+    }
+
+    /**
+     * @return              a new array with exactly the packed x, y
+     *                      pairs of this buffer
+     */
+    public double[] toArray() {
+        return Arrays.copyOf(coordinates, size * 2);
+    }
+
+    /**
+     * @return              a new list with the vectors of this buffer
+     */
+    public List<Vector> toVectors() {
+        List<Vector> result = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            result.add(get(i));
+        }
+        return result;
+    }
+
+    /**
+     * @return              a new polygon made out of the vectors of
+     *                      this buffer
+     */
+    public Polygon toPolygon() {
+        return new Polygon(toVectors());
+    }
+}
@@ -0,0 +1,52 @@
+package nl.pluizer.math2d;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class CircleTest {
+
+    /**
+     * The smallest circle around a triangle with an obtuse angle goes
+     * through its two furthest corners only.
+     */
+    @Test
+    public void testEncapsulateVectors() {
+        List<Vector> vectors = new ArrayList<>();
+        vectors.add(new Vector(-2.0d, 0.0d));
+        vectors.add(new Vector(2.0d, 0.0d));
+        vectors.add(new Vector(0.0d, 1.0d));
+        vectors.add(new Vector(0.5d, -0.5d));
+        Circle circle = Circle.encapsulateVectors(vectors);
+        assertTrue(circle.getCentre().equals(new Vector()));
+        assertEquals(2.0d, circle.getRadius(), 1e-9);
+
+        Circle approximate = Circle.approximateVectors(vectors);
+        assertTrue(approximate.getRadius() >= circle.getRadius());
+        for (Vector v : vectors) {
+            assertTrue(v.distance(approximate.getCentre()) <= approximate.getRadius());
+        }
+    }
+
+    /**
+     * Three corners of a square are all on the circle.
+     */
+    @Test
+    public void testEncapsulatePolygon() {
+        List<Vector> vectors = new ArrayList<>();
+        vectors.add(new Vector(0.0d, 0.0d));
+        vectors.add(new Vector(2.0d, 0.0d));
+        vectors.add(new Vector(2.0d, 2.0d));
+        vectors.add(new Vector(0.0d, 2.0d));
+        Circle circle = Circle.encapsulatePolygon(new Polygon(vectors));
+        assertTrue(circle.getCentre().equals(new Vector(1.0d, 1.0d)));
+        assertEquals(Math.sqrt(2.0d), circle.getRadius(), 1e-9);
+
+        Circle rotated = circle.rotate(Angle.fromDegree(90), new Vector());
+        assertTrue(rotated.getCentre().equals(new Vector(-1.0d, 1.0d)));
+        assertEquals(circle.getRadius(), rotated.getRadius(), 0.0d);
+    }
+}
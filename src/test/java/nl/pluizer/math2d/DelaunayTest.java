@@ -0,0 +1,131 @@
+package nl.pluizer.math2d;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class DelaunayTest {
+
+    private static double area(List<Vector> vectors) {
+        double area = 0;
+        for (int i = 0, j = vectors.size() - 1; i < vectors.size(); j = i++) {
+            area += vectors.get(j).getX() * vectors.get(i).getY() -
+                    vectors.get(i).getX() * vectors.get(j).getY();
+        }
+        return area * 0.5d;
+    }
+
+    /**
+     * Every triangle is counter-clockwise with an empty circumcircle,
+     * also on a grid where many vectors share a circle.
+     */
+    @Test
+    public void testTriangulation() {
+        Random random = new Random(7);
+        double[] coordinates = new double[400];
+        for (int i = 0; i < 200; i++) {
+            coordinates[i * 2] = i < 100 ? random.nextInt(10) : random.nextDouble() * 9;
+            coordinates[i * 2 + 1] = i < 100 ? random.nextInt(10) : random.nextDouble() * 9;
+        }
+        Delaunay delaunay = new Delaunay(coordinates, 200);
+        int[] triangles = delaunay.getTriangles();
+        int[] halfedges = delaunay.getHalfedges();
+        double[] c = coordinates;
+        double total = 0;
+        for (int t = 0; t < triangles.length; t += 3) {
+            int a = triangles[t], b = triangles[t + 1], d = triangles[t + 2];
+            double orient = Predicates.orient(c[a * 2], c[a * 2 + 1], c[b * 2], c[b * 2 + 1],
+                    c[d * 2], c[d * 2 + 1]);
+            assertTrue(orient > 0);
+            total += orient * 0.5d;
+            for (int p = 0; p < 200; p++) {
+                assertFalse(Predicates.inCircle(c[a * 2], c[a * 2 + 1], c[b * 2], c[b * 2 + 1],
+                        c[d * 2], c[d * 2 + 1], c[p * 2], c[p * 2 + 1]) > 0);
+            }
+        }
+        for (int e = 0; e < halfedges.length; e++) {
+            assertTrue(halfedges[e] == -1 || halfedges[halfedges[e]] == e);
+        }
+        List<Vector> hull = new ArrayList<>();
+        for (int i : delaunay.getHull()) {
+            hull.add(new Vector(c[i * 2], c[i * 2 + 1]));
+        }
+        assertEquals(area(hull), total, 1e-9);
+    }
+
+    /**
+     * Vectors on a line that is only straight up to rounding, which
+     * makes flat seeds. Every vector must still be used and every edge
+     * be locally Delaunay, which for a triangulation means all
+     * circumcircles are empty. The largest size times out if the
+     * triangulation takes quadratic time.
+     */
+    @Test(timeout = 20000)
+    public void testNearlyCollinear() {
+        for (int n : new int[] {5, 20, 100, 1000, 200000}) {
+            double[] c = new double[n * 2];
+            for (int i = 0; i < n; i++) {
+                c[i * 2] = 0.1d * i;
+                c[i * 2 + 1] = 0.3d * i;
+            }
+            Delaunay delaunay = new Delaunay(c, n);
+            int[] triangles = delaunay.getTriangles();
+            int[] halfedges = delaunay.getHalfedges();
+            boolean[] used = new boolean[n];
+            for (int e = 0; e < triangles.length; e++) {
+                int t = e - e % 3;
+                int a = triangles[t], b = triangles[t + 1], d = triangles[t + 2];
+                if (e == t) {
+                    assertTrue(Predicates.orient(c[a * 2], c[a * 2 + 1], c[b * 2], c[b * 2 + 1],
+                            c[d * 2], c[d * 2 + 1]) > 0);
+                }
+                used[triangles[e]] = true;
+                int opposite = halfedges[e];
+                if (opposite != -1) {
+                    // The corner across the edge, not in this triangle.
+                    int p = triangles[opposite % 3 == 0 ? opposite + 2 : opposite - 1];
+                    assertFalse(Predicates.inCircle(c[a * 2], c[a * 2 + 1], c[b * 2], c[b * 2 + 1],
+                            c[d * 2], c[d * 2 + 1], c[p * 2], c[p * 2 + 1]) > 0);
+                }
+            }
+            for (int i : delaunay.getHull()) {
+                used[i] = true;
+            }
+            for (int i = 0; i < n; i++) {
+                assertTrue("Vector " + i + " of " + n + " is not used", used[i]);
+            }
+        }
+    }
+
+    /**
+     * The cells of a square of four vectors are its quarters, and the
+     * cells of vectors on a line are strips.
+     */
+    @Test
+    public void testVoronoi() {
+        List<Vector> vectors = new ArrayList<>();
+        vectors.add(new Vector(1.0d, 1.0d));
+        vectors.add(new Vector(3.0d, 1.0d));
+        vectors.add(new Vector(3.0d, 3.0d));
+        vectors.add(new Vector(1.0d, 3.0d));
+        Rectangle bounds = Rectangle.fromBounds(0.0d, 0.0d, 4.0d, 4.0d);
+        List<Polygon> cells = new Delaunay(vectors).voronoi(bounds);
+        assertEquals(4, cells.size());
+        for (int i = 0; i < 4; i++) {
+            assertEquals(4.0d, area(cells.get(i).getVectors()), 1e-12);
+            Rectangle box = Rectangle.encapsulateVectors(cells.get(i).getVectors());
+            assertTrue(box.contains(vectors.get(i)));
+        }
+
+        double[] line = {0.0d, 0.0d, 2.0d, 0.0d, 1.0d, 0.0d};
+        Delaunay collinear = new Delaunay(line, 3);
+        assertEquals(0, collinear.triangleCount());
+        VectorBuffer cell = new VectorBuffer();
+        collinear.cell(2, Rectangle.fromBounds(-1.0d, -1.0d, 3.0d, 1.0d), cell);
+        assertEquals(2.0d, area(cell.toVectors()), 1e-12);
+    }
+}
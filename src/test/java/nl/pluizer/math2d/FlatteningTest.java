@@ -0,0 +1,179 @@
+package nl.pluizer.math2d;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class FlatteningTest {
+
+    private static double cubicX(double t) {
+        double u = 1 - t;
+        return u * u * u * 0 + 3 * u * u * t * 10 + 3 * u * t * t * 20 + t * t * t * 30;
+    }
+
+    private static double cubicY(double t) {
+        double u = 1 - t;
+        return u * u * u * 0 + 3 * u * u * t * 40 + 3 * u * t * t * -40 + t * t * t * 0;
+    }
+
+    private static double distanceToSegment(double x, double y, VectorBuffer points, int i) {
+        double aX = points.getX(i), aY = points.getY(i);
+        double dX = points.getX(i + 1) - aX, dY = points.getY(i + 1) - aY;
+        double t = ((x - aX) * dX + (y - aY) * dY) / (dX * dX + dY * dY);
+        t = Math.max(0, Math.min(1, t));
+        return Math.hypot(x - aX - t * dX, y - aY - t * dY);
+    }
+
+    /**
+     * Every point of a cubic curve lies within the tolerance of the
+     * polyline, and a smaller tolerance takes more segments.
+     */
+    @Test
+    public void testCubic() {
+        for (double tolerance : new double[] {1.0d, 0.1d, 0.001d}) {
+            VectorBuffer points = new VectorBuffer();
+            points.add(0, 0);
+            Flattening.cubic(0, 0, 10, 40, 20, -40, 30, 0, tolerance, points);
+            int n = Flattening.cubicSegments(0, 0, 10, 40, 20, -40, 30, 0, tolerance);
+            assertEquals(n + 1, points.size());
+            assertEquals(30.0d, points.getX(n), 0.0d);
+            for (int k = 0; k <= 1000; k++) {
+                double t = k / 1000.0d;
+                double best = Double.POSITIVE_INFINITY;
+                for (int i = 0; i < n; i++) {
+                    best = Math.min(best, distanceToSegment(cubicX(t), cubicY(t), points, i));
+                }
+                assertTrue(best <= tolerance);
+            }
+        }
+        assertTrue(Flattening.cubicSegments(0, 0, 10, 40, 20, -40, 30, 0, 0.01d) >
+                Flattening.cubicSegments(0, 0, 10, 40, 20, -40, 30, 0, 1.0d));
+        // A straight line needs one segment.
+        assertEquals(1, Flattening.quadraticSegments(0, 0, 1, 1, 2, 2, 1e-9));
+    }
+
+    /**
+     * Circle outlines stay within the tolerance and close properly.
+     */
+    @Test
+    public void testCircle() {
+        Circle circle = new Circle(new Vector(5, -3), 100);
+        Polygon polygon = circle.toPolygon(0.5d);
+        int n = polygon.getVectors().size();
+        assertEquals(Flattening.arcSegments(100, 2 * Math.PI, 0.5d), n);
+        double step = 2 * Math.PI / n;
+        // The middle of every edge is at most the tolerance inside.
+        assertTrue(100 - 100 * Math.cos(step / 2) <= 0.5d);
+        assertTrue(100 - 100 * Math.cos(2 * Math.PI / (n - 1) / 2) > 0.5d);
+        for (Vector v : polygon.getVectors()) {
+            assertEquals(100.0d, Math.hypot(v.getX() - 5, v.getY() + 3), 1e-9);
+        }
+        assertEquals(3, new Circle(1).toPolygon(10).getVectors().size());
+    }
+
+    /**
+     * A long path arrives in overlapping chunks that join up.
+     */
+    @Test
+    public void testPath() {
+        List<double[]> chunks = new ArrayList<>();
+        List<Boolean> ends = new ArrayList<>();
+        Flattening.Path path = new Flattening.Path(0.01d, 64, (points, end) -> {
+            chunks.add(points.toArray());
+            ends.add(end);
+        });
+        path.moveTo(0, 0);
+        for (int i = 0; i < 100; i++) {
+            path.quadTo(i + 0.5d, 1, i + 1, 0);
+        }
+        path.arcTo(100, 10, Math.PI);
+        path.close();
+        assertTrue(chunks.size() > 2);
+        assertTrue(ends.get(ends.size() - 1));
+        for (int i = 1; i < chunks.size(); i++) {
+            double[] previous = chunks.get(i - 1), chunk = chunks.get(i);
+            assertFalse(ends.get(i - 1));
+            assertEquals(previous[previous.length - 2], chunk[0], 0.0d);
+            assertEquals(previous[previous.length - 1], chunk[1], 0.0d);
+        }
+        double[] last = chunks.get(chunks.size() - 1);
+        assertEquals(0.0d, last[last.length - 2], 0.0d);
+        assertEquals(0.0d, last[last.length - 1], 0.0d);
+    }
+
+    /**
+     * A polyline whose last point fills a chunk still ends with a chunk
+     * marked as the end.
+     */
+    @Test
+    public void testPathFullChunk() {
+        List<double[]> chunks = new ArrayList<>();
+        List<Boolean> ends = new ArrayList<>();
+        Flattening.Path path = new Flattening.Path(0.01d, 4, (points, end) -> {
+            chunks.add(points.toArray());
+            ends.add(end);
+        });
+        path.moveTo(0, 0);
+        path.lineTo(1, 0);
+        path.lineTo(2, 0);
+        path.lineTo(3, 0);
+        path.moveTo(10, 10);
+        path.lineTo(11, 10);
+        path.end();
+        assertEquals(3, chunks.size());
+        assertArrayEquals(new double[] {0, 0, 1, 0, 2, 0, 3, 0}, chunks.get(0), 0.0d);
+        assertFalse(ends.get(0));
+        assertArrayEquals(new double[] {3, 0}, chunks.get(1), 0.0d);
+        assertTrue(ends.get(1));
+        assertArrayEquals(new double[] {10, 10, 11, 10}, chunks.get(2), 0.0d);
+        assertTrue(ends.get(2));
+    }
+
+    /**
+     * A curve with many more points than the chunk size is split over
+     * many chunks, none larger than the chunk size.
+     */
+    @Test
+    public void testPathCurveChunks() {
+        List<double[]> chunks = new ArrayList<>();
+        List<Boolean> ends = new ArrayList<>();
+        Flattening.Path path = new Flattening.Path(0.0001d, 8, (points, end) -> {
+            assertTrue(points.size() <= 8);
+            chunks.add(points.toArray());
+            ends.add(end);
+        });
+        path.moveTo(0, 0);
+        path.quadTo(500, 1000, 1000, 0);
+        path.end();
+        int segments = Flattening.quadraticSegments(0, 0, 500, 1000, 1000, 0, 0.0001d);
+        assertTrue(segments > 1000);
+        // Every chunk repeats the last point of the one before.
+        int count = 1;
+        for (double[] chunk : chunks) {
+            count += chunk.length / 2 - 1;
+        }
+        assertEquals(segments + 1, count);
+        assertTrue(ends.get(ends.size() - 1));
+        double[] last = chunks.get(chunks.size() - 1);
+        assertEquals(1000, last[last.length - 2], 0.0d);
+    }
+
+    /**
+     * A curve that would need more than MAX_SEGMENTS segments is
+     * flattened into exactly that many, and still ends at its end point.
+     */
+    @Test
+    public void testMaxSegments() {
+        double tolerance = 1e-12d;
+        assertEquals(Flattening.MAX_SEGMENTS,
+                Flattening.quadraticSegments(0, 0, 5e5, 1e6, 1e6, 0, tolerance));
+        assertEquals(Flattening.MAX_SEGMENTS, Flattening.arcSegments(1e6, Math.PI, tolerance));
+        VectorBuffer points = new VectorBuffer();
+        Flattening.quadratic(0, 0, 5e5, 1e6, 1e6, 0, tolerance, points);
+        assertEquals(Flattening.MAX_SEGMENTS, points.size());
+        assertEquals(1e6, points.getX(points.size() - 1), 0.0d);
+    }
+}
@@ -0,0 +1,72 @@
+package nl.pluizer.math2d;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class FloatPolygonTest {
+
+    /**
+     * Values that fit in a float survive the round trip between single
+     * and double precision.
+     */
+    @Test
+    public void testConversion() {
+        List<Vector> vectors = new ArrayList<>();
+        vectors.add(new Vector(0.0d, 0.0d));
+        vectors.add(new Vector(4.0d, 0.0d));
+        vectors.add(new Vector(4.0d, 2.5d));
+        vectors.add(new Vector(0.0d, 2.5d));
+        Polygon polygon = new Polygon(vectors);
+        FloatPolygon single = new FloatPolygon(polygon);
+        assertEquals(4, single.size());
+        List<Vector> back = single.toPolygon().getVectors();
+        for (int i = 0; i < vectors.size(); i++) {
+            assertTrue(back.get(i).equals(vectors.get(i)));
+        }
+
+        FloatPolygon moved = single.add(new Vector(1.0d, 1.0d)).rotate(Angle.fromDegree(90));
+        assertTrue(moved.get(2).equals(new Vector(-3.5d, 5.0d)));
+
+        FloatRectangle bounds = single.bounds();
+        assertEquals(4.0d, bounds.getWidth(), 0.0d);
+        assertEquals(2.5d, bounds.getHeight(), 0.0d);
+        assertEquals(bounds.area(), bounds.toRectangle().getWidth() * bounds.toRectangle().getHeight(), 0.0d);
+    }
+
+    /**
+     * Clipping and rectangle queries in single precision.
+     */
+    @Test
+    public void testRectangle() {
+        FloatRectangle a = FloatRectangle.fromBounds(0.0f, 0.0f, 2.0f, 2.0f);
+        FloatRectangle b = FloatRectangle.fromBounds(1.0f, 1.0f, 3.0f, 3.0f);
+        assertTrue(a.intersects(b));
+        assertFalse(a.contains(b));
+        assertTrue(a.merge(b).contains(b));
+        assertEquals(0.5d, a.segmentQuery(new Vector(-1.0d, 1.0d), new Vector(1.0d, 1.0d)), 1e-9);
+        assertEquals(Double.POSITIVE_INFINITY, a.segmentQuery(new Vector(-1.0d, 3.0d), new Vector(1.0d, 3.0d)), 0.0d);
+
+        FloatPolygon clipped = new FloatPolygon(b).clip(a);
+        FloatRectangle bounds = clipped.bounds();
+        assertEquals(1.0f, bounds.getLeft(), 0.0f);
+        assertEquals(2.0f, bounds.getTop(), 0.0f);
+        assertEquals(1.0d, bounds.area(), 1e-9);
+
+        // Both precisions sort bounds given in the wrong order.
+        FloatRectangle swapped = FloatRectangle.fromBounds(3.0f, 2.0f, 1.0f, 0.0f);
+        Rectangle exact = Rectangle.fromBounds(3.0d, 2.0d, 1.0d, 0.0d);
+        assertEquals(1.0d, exact.getLeft(), 0.0d);
+        assertEquals(3.0d, exact.getRight(), 0.0d);
+        assertEquals(0.0d, exact.getBottom(), 0.0d);
+        assertEquals(2.0d, exact.getTop(), 0.0d);
+        Rectangle converted = swapped.toRectangle();
+        assertEquals(exact.getLeft(), converted.getLeft(), 0.0d);
+        assertEquals(exact.getRight(), converted.getRight(), 0.0d);
+        assertEquals(exact.getBottom(), converted.getBottom(), 0.0d);
+        assertEquals(exact.getTop(), converted.getTop(), 0.0d);
+    }
+}
@@ -0,0 +1,61 @@
+package nl.pluizer.math2d;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class KDTreeTest {
+
+    private static List<Vector> grid() {
+        List<Vector> vectors = new ArrayList<>();
+        for (int y = 0; y < 10; y++) {
+            for (int x = 0; x < 10; x++) {
+                vectors.add(new Vector(x, y));
+            }
+        }
+        return vectors;
+    }
+
+    /**
+     * On a grid the nearest vectors are the grid point itself and then
+     * its four direct neighbours.
+     */
+    @Test
+    public void testNearest() {
+        KDTree tree = new KDTree(grid());
+        assertEquals(100, tree.size());
+        assertTrue(tree.get(tree.nearest(new Vector(3.2d, 6.9d))).equals(new Vector(3.0d, 7.0d)));
+
+        KDTree.Neighbours neighbours = new KDTree.Neighbours(5);
+        tree.nearest(4.0d, 4.0d, 5, neighbours);
+        assertEquals(5, neighbours.size());
+        assertEquals(44, neighbours.getIndex(0));
+        assertEquals(0.0d, neighbours.getDistanceSquared(0), 0.0d);
+        for (int i = 1; i < 5; i++) {
+            assertEquals(1.0d, neighbours.getDistanceSquared(i), 0.0d);
+        }
+
+        tree.radius(0.0d, 0.0d, 1.5d, neighbours);
+        assertEquals(4, neighbours.size());
+    }
+
+    /**
+     * The closest pair and the neighbours of every vector.
+     */
+    @Test
+    public void testClosestPair() {
+        List<Vector> vectors = grid();
+        vectors.add(new Vector(5.1d, 5.0d));
+        KDTree tree = new KDTree(vectors);
+        int[] pair = tree.closestPair();
+        assertEquals(100 + 55, pair[0] + pair[1]);
+
+        int[] out = new int[tree.size() * 2];
+        tree.allNearest(2, out);
+        assertEquals(55, out[100 * 2]);
+        assertEquals(100, out[55 * 2]);
+    }
+}
@@ -0,0 +1,98 @@
+package nl.pluizer.math2d;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class MassPropertiesTest {
+
+    /**
+     * A rectangle as polygon, in both orders and far from the origin,
+     * agrees with the closed form of the rectangle.
+     */
+    @Test
+    public void testPolygon() {
+        Rectangle rectangle = Rectangle.fromBounds(1000.0d, 2000.0d, 1004.0d, 2002.0d);
+        MassProperties expected = rectangle.massProperties();
+        assertEquals(8.0d, expected.getArea(), 1e-12);
+        assertEquals(8.0d * 20.0d / 12.0d, expected.getInertia(), 1e-12);
+
+        Polygon polygon = new Polygon(rectangle);
+        List<Vector> reversed = new ArrayList<>(polygon.getVectors());
+        java.util.Collections.reverse(reversed);
+        for (Polygon p : Arrays.asList(polygon, new Polygon(reversed))) {
+            MassProperties actual = p.massProperties();
+            assertEquals(expected.getArea(), actual.getArea(), 1e-9);
+            assertEquals(1002.0d, actual.getCentroidX(), 1e-9);
+            assertEquals(2001.0d, actual.getCentroidY(), 1e-9);
+            assertEquals(expected.getInertia(), actual.getInertia(), 1e-9);
+            assertSame(actual, p.massProperties());
+        }
+    }
+
+    /**
+     * Triangles and circles, and the inertia for a given mass.
+     */
+    @Test
+    public void testShapes() {
+        // A right triangle with legs 3 and 6: I = A (a^2 + b^2) / 18.
+        Triangle triangle = new Triangle(new Vector(0.0d, 0.0d),
+                new Vector(3.0d, 0.0d), new Vector(0.0d, 6.0d));
+        MassProperties t = triangle.massProperties();
+        assertEquals(9.0d, t.getArea(), 1e-12);
+        assertEquals(1.0d, t.getCentroidX(), 1e-12);
+        assertEquals(2.0d, t.getCentroidY(), 1e-12);
+        assertEquals(9.0d * 45.0d / 18.0d, t.getInertia(), 1e-12);
+
+        Circle circle = new Circle(new Vector(1.0d, 2.0d), 2.0d);
+        MassProperties c = circle.massProperties();
+        assertEquals(4.0d * Math.PI, c.getArea(), 1e-12);
+        assertTrue(new Vector(1.0d, 2.0d).equals(c.getCentroid()));
+        // A disc of mass 3: m r^2 / 2.
+        assertEquals(6.0d, c.getInertia(3.0d), 1e-12);
+    }
+
+    /**
+     * The bulk variants fill the arrays like the single polygons do.
+     */
+    @Test
+    public void testCompute() {
+        int count = 1000;
+        List<Polygon> polygons = new ArrayList<>();
+        int[] offsets = new int[count + 1];
+        double[] coordinates = new double[count * 8 * 2];
+        java.util.Random random = new java.util.Random(3);
+        for (int i = 0; i < count; i++) {
+            List<Vector> vectors = new ArrayList<>();
+            for (int j = 0; j < 8; j++) {
+                vectors.add(new Vector(random.nextDouble() * 10, random.nextDouble() * 10));
+            }
+            Polygon hull = new Polygon(vectors).convexHull();
+            offsets[i + 1] = offsets[i] + hull.getVectors().size();
+            for (int j = 0; j < hull.getVectors().size(); j++) {
+                coordinates[(offsets[i] + j) * 2] = hull.getVectors().get(j).getX();
+                coordinates[(offsets[i] + j) * 2 + 1] = hull.getVectors().get(j).getY();
+            }
+            polygons.add(hull);
+        }
+        double[] areas = new double[count], centroids = new double[count * 2];
+        double[] inertias = new double[count];
+        MassProperties.compute(coordinates, offsets, count, areas, centroids, inertias);
+        double[] listAreas = new double[count], listCentroids = new double[count * 2];
+        double[] listInertias = new double[count];
+        MassProperties.compute(polygons, listAreas, listCentroids, listInertias);
+        for (int i = 0; i < count; i++) {
+            MassProperties p = polygons.get(i).massProperties();
+            assertEquals(p.getArea(), areas[i], 0.0d);
+            assertEquals(p.getCentroidX(), centroids[i * 2], 0.0d);
+            assertEquals(p.getCentroidY(), centroids[i * 2 + 1], 0.0d);
+            assertEquals(p.getInertia(), inertias[i], 0.0d);
+            assertEquals(p.getArea(), listAreas[i], 0.0d);
+            assertEquals(p.getInertia(), listInertias[i], 0.0d);
+        }
+    }
+}
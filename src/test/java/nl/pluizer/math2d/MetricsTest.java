@@ -0,0 +1,63 @@
+package nl.pluizer.math2d;
+
+import org.junit.Assume;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class MetricsTest {
+
+    /**
+     * A convex hull of 20 vectors is counted in the bucket of 16 up to
+     * 32 vectors. Only runs with metrics enabled, as the build does.
+     */
+    @Test
+    public void testConvexHull() {
+        assertEquals(0, Metrics.sizeBucket(0));
+        assertEquals(1, Metrics.sizeBucket(1));
+        assertEquals(5, Metrics.sizeBucket(20));
+        Assume.assumeTrue(Metrics.ENABLED);
+
+        List<Vector> vectors = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            vectors.add(new Vector(Math.cos(i), Math.sin(i)));
+        }
+        Polygon polygon = new Polygon(vectors);
+        int bucket = Metrics.sizeBucket(20);
+        long before = Metrics.count(Metrics.Operation.CONVEX_HULL, bucket);
+        polygon.convexHull();
+        polygon.convexHull();
+        assertEquals(before + 2, Metrics.count(Metrics.Operation.CONVEX_HULL, bucket));
+
+        long histogram = 0;
+        for (long count : Metrics.latencies(Metrics.Operation.CONVEX_HULL, bucket)) {
+            histogram += count;
+        }
+        assertEquals(Metrics.count(Metrics.Operation.CONVEX_HULL, bucket), histogram);
+    }
+
+    /**
+     * Bounding a list of vectors and querying a segment against a
+     * rectangle are counted.
+     */
+    @Test
+    public void testRectangle() {
+        Assume.assumeTrue(Metrics.ENABLED);
+        List<Vector> vectors = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            vectors.add(new Vector(i, i * i));
+        }
+        int bucket = Metrics.sizeBucket(5);
+        long bounds = Metrics.count(Metrics.Operation.BOUNDS, bucket);
+        Rectangle rectangle = Rectangle.encapsulateVectors(vectors);
+        assertEquals(bounds + 1, Metrics.count(Metrics.Operation.BOUNDS, bucket));
+
+        bucket = Metrics.sizeBucket(2);
+        long queries = Metrics.count(Metrics.Operation.SEGMENT_QUERY, bucket);
+        assertEquals(0.5d, rectangle.segmentQuery(new Vector(-4, 8), new Vector(4, 8)), 0.0d);
+        assertEquals(queries + 1, Metrics.count(Metrics.Operation.SEGMENT_QUERY, bucket));
+    }
+}
@@ -0,0 +1,77 @@
+package nl.pluizer.math2d;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class MinkowskiSumTest {
+
+    private static double area(Polygon polygon) {
+        List<Vector> v = polygon.getVectors();
+        double area = 0;
+        for (int i = 0, j = v.size() - 1; i < v.size(); j = i++) {
+            area += v.get(j).crossProduct(v.get(i));
+        }
+        return area * 0.5d;
+    }
+
+    /**
+     * A unit square inflated by a clockwise triangle.
+     */
+    @Test
+    public void testSum() {
+        List<Vector> triangle = new ArrayList<>();
+        triangle.add(new Vector(0.0d, 0.0d));
+        triangle.add(new Vector(0.0d, 1.0d));
+        triangle.add(new Vector(1.0d, 0.0d));
+        Polygon square = new Polygon(Rectangle.encapsulateVectors(triangle));
+        Polygon sum = square.minkowskiSum(new Polygon(triangle));
+        // Square, triangle and the two unit rectangles along its edges.
+        assertEquals(5, sum.getVectors().size());
+        assertEquals(1.0d + 0.5d + 2.0d, area(sum), 1e-9);
+        assertTrue(sum.getVectors().get(0).equals(new Vector(0.0d, 0.0d)));
+    }
+
+    /**
+     * The difference of two equal squares is twice as wide and
+     * centred around the origin.
+     */
+    @Test
+    public void testDifference() {
+        List<Vector> vectors = new ArrayList<>();
+        vectors.add(new Vector(1.0d, 1.0d));
+        vectors.add(new Vector(2.0d, 1.0d));
+        vectors.add(new Vector(2.0d, 2.0d));
+        vectors.add(new Vector(1.0d, 2.0d));
+        Polygon square = new Polygon(vectors);
+        Polygon difference = square.minkowskiDifference(square);
+        assertEquals(4, difference.getVectors().size());
+        assertEquals(4.0d, area(difference), 1e-9);
+        assertTrue(difference.getVectors().get(0).equals(new Vector(-1.0d, -1.0d)));
+    }
+
+    /**
+     * Inflating by a circle never gives a smaller result than the
+     * exact sum.
+     */
+    @Test
+    public void testInflateByCircle() {
+        List<Vector> vectors = new ArrayList<>();
+        vectors.add(new Vector(0.0d, 0.0d));
+        vectors.add(new Vector(2.0d, 0.0d));
+        vectors.add(new Vector(0.0d, 2.0d));
+        List<Polygon> obstacles = new ArrayList<>();
+        obstacles.add(new Polygon(vectors));
+        obstacles.add(new Polygon(vectors));
+        MinkowskiSum inflate = new MinkowskiSum(new Circle(0.5d), 32);
+        List<Polygon> result = inflate.inflate(obstacles);
+        assertEquals(2, result.size());
+        double exact = 2.0d + 0.5d * (2.0d + 2.0d + Math.sqrt(8.0d)) + Math.PI * 0.25d;
+        double inflated = area(result.get(1));
+        assertTrue(inflated >= exact);
+        assertEquals(exact, inflated, 0.01d);
+    }
+}
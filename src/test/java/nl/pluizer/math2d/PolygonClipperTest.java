@@ -0,0 +1,113 @@
+package nl.pluizer.math2d;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class PolygonClipperTest {
+
+    private static Polygon square(double x, double y, double size) {
+        List<Vector> vectors = new ArrayList<>();
+        vectors.add(new Vector(x, y));
+        vectors.add(new Vector(x + size, y));
+        vectors.add(new Vector(x + size, y + size));
+        vectors.add(new Vector(x, y + size));
+        return new Polygon(vectors);
+    }
+
+    private static double area(Polygon polygon) {
+        List<Vector> v = polygon.getVectors();
+        double area = 0;
+        for (int i = 0, j = v.size() - 1; i < v.size(); j = i++) {
+            area += v.get(j).crossProduct(v.get(i));
+        }
+        return Math.abs(area * 0.5d);
+    }
+
+    private static double area(List<Polygon> polygons) {
+        double area = 0;
+        for (Polygon polygon : polygons) {
+            area += area(polygon);
+        }
+        return area;
+    }
+
+    /**
+     * Clip a triangle against a rectangle.
+     */
+    @Test
+    public void testClipRectangle() {
+        List<Vector> vectors = new ArrayList<>();
+        vectors.add(new Vector(-1.0d, 0.0d));
+        vectors.add(new Vector(3.0d, 0.0d));
+        vectors.add(new Vector(1.0d, 2.0d));
+        Rectangle viewport = Rectangle.encapsulateVectors(square(0, 0, 2).getVectors());
+        Polygon clipped = new Polygon(vectors).clip(viewport);
+        assertEquals(5, clipped.getVectors().size());
+        assertEquals(3.0d, area(clipped), 1e-9);
+        assertTrue(square(5, 5, 1).clip(viewport).getVectors().isEmpty());
+    }
+
+    /**
+     * Clip against a convex polygon defined in either direction.
+     */
+    @Test
+    public void testClipConvex() {
+        PolygonClipper clipper = new PolygonClipper();
+        Polygon clip = square(1, 1, 2);
+        List<Vector> reversed = new ArrayList<>(clip.getVectors());
+        java.util.Collections.reverse(reversed);
+        assertEquals(1.0d, area(clipper.clipConvex(square(0, 0, 2), clip)), 1e-9);
+        assertEquals(1.0d, area(clipper.clipConvex(square(0, 0, 2), new Polygon(reversed))), 1e-9);
+    }
+
+    /**
+     * Boolean operations on two overlapping squares.
+     */
+    @Test
+    public void testBooleanOperations() {
+        Polygon a = square(0, 0, 2);
+        Polygon b = square(1, 1, 2);
+        assertEquals(1.0d, area(a.intersection(b)), 1e-9);
+        assertEquals(7.0d, area(a.union(b)), 1e-9);
+        assertEquals(3.0d, area(a.difference(b)), 1e-9);
+        assertEquals(1, a.union(b).size());
+        assertTrue(a.intersection(square(10, 10, 1)).isEmpty());
+    }
+
+    /**
+     * Subtracting a polygon from the middle leaves a hole.
+     */
+    @Test
+    public void testDifferenceWithHole() {
+        List<Polygon> result = square(0, 0, 4).difference(square(1, 1, 2));
+        assertEquals(2, result.size());
+        double a = area(result.get(0)), b = area(result.get(1));
+        assertEquals(16.0d, Math.max(a, b), 1e-9);
+        assertEquals(4.0d, Math.min(a, b), 1e-9);
+    }
+
+    /**
+     * Squares sharing an edge are merged into one ring.
+     */
+    @Test
+    public void testUnionSharedEdge() {
+        PolygonClipper clipper = new PolygonClipper();
+        List<VectorBuffer> subject = new ArrayList<>();
+        List<VectorBuffer> clip = new ArrayList<>();
+        List<VectorBuffer> out = new ArrayList<>();
+        subject.add(new VectorBuffer(square(0, 0, 1)));
+        clip.add(new VectorBuffer(square(1, 0, 1)));
+        int count = clipper.union(subject, clip, out);
+        assertEquals(1, count);
+        assertEquals(2.0d, area(out.get(0).toPolygon()), 1e-9);
+        // The output buffers are reused.
+        VectorBuffer first = out.get(0);
+        assertEquals(1, clipper.intersection(subject, subject, out));
+        assertSame(first, out.get(0));
+        assertEquals(1.0d, area(out.get(0).toPolygon()), 1e-9);
+    }
+}
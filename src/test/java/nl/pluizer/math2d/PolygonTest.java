@@ -43,4 +43,56 @@ public class PolygonTest {
         }
         assertTrue("Got a wrong convex hull", same);
     }
-}
\ No newline at end of file
+
+    /**
+     * A chain of moves and a rotation is one view of the original
+     * polygon, with the same vectors as doing each step by hand.
+     */
+    @Test
+    public void testTransform() {
+        Polygon square = new Polygon(Rectangle.fromBounds(1.0d, 1.0d, 3.0d, 3.0d));
+        Vector pivot = new Vector(2.0d, 2.0d);
+        Vector position = new Vector(10.0d, 0.0d);
+        Angle angle = Angle.fromDegree(90.0d);
+        Polygon moved = square.subtract(pivot).rotate(angle).add(position);
+        assertTrue(moved.isView());
+        assertFalse(square.isView());
+
+        List<Vector> vectors = moved.getVectors();
+        assertEquals(square.getVectors().size(), vectors.size());
+        for (int i = 0; i < vectors.size(); i++) {
+            Vector v = square.getVectors().get(i).subtract(pivot);
+            Vector expected = new Vector(-v.getY(), v.getX()).add(position);
+            assertTrue(expected.equals(vectors.get(i)));
+        }
+        assertSame(vectors, moved.getVectors());
+        assertSame(moved, moved.materialize());
+
+        // Rotating around a pivot keeps the pivot in place.
+        Polygon turned = square.rotate(angle, pivot);
+        for (Vector v : turned.getVectors()) {
+            assertEquals(Math.sqrt(2.0d), v.subtract(pivot).length(), 1e-12);
+        }
+    }
+
+    /**
+     * A view takes its mass properties from the original polygon.
+     */
+    @Test
+    public void testTransformMassProperties() {
+        List<Vector> vectors = new ArrayList<>();
+        vectors.add(new Vector(0.0d, 0.0d));
+        vectors.add(new Vector(4.0d, 0.0d));
+        vectors.add(new Vector(4.0d, 1.0d));
+        vectors.add(new Vector(1.0d, 3.0d));
+        Polygon polygon = new Polygon(vectors);
+        Polygon view = polygon.rotate(Angle.fromDegree(30.0d), new Vector(1.0d, 1.0d))
+                .add(new Vector(5.0d, -2.0d));
+        MassProperties expected = new Polygon(view.getVectors()).massProperties();
+        MassProperties actual = view.massProperties();
+        assertEquals(expected.getArea(), actual.getArea(), 1e-9);
+        assertEquals(expected.getCentroidX(), actual.getCentroidX(), 1e-9);
+        assertEquals(expected.getCentroidY(), actual.getCentroidY(), 1e-9);
+        assertEquals(expected.getInertia(), actual.getInertia(), 1e-9);
+    }
+}
@@ -0,0 +1,64 @@
+package nl.pluizer.math2d;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class PredicatesTest {
+
+    /**
+     * Vectors one unit in the last place off a line are on the correct
+     * side, where plain double arithmetic gets the sign wrong.
+     */
+    @Test
+    public void testOrient() {
+        assertTrue(Predicates.orient(0.0d, 0.0d, 1.0d, 0.0d, 0.0d, 1.0d) > 0);
+        assertTrue(Predicates.orient(0.0d, 0.0d, 0.0d, 1.0d, 1.0d, 0.0d) < 0);
+
+        double ulp = Math.ulp(0.5d);
+        assertEquals(0.0d, Predicates.orient(0.5d, 0.5d, 12.0d, 12.0d, 24.0d, 24.0d), 0.0d);
+        assertTrue(Predicates.orient(0.5d, 0.5d + ulp, 12.0d, 12.0d, 24.0d, 24.0d) > 0);
+        assertTrue(Predicates.orient(0.5d + ulp, 0.5d, 12.0d, 12.0d, 24.0d, 24.0d) < 0);
+    }
+
+    /**
+     * The corners of a square are on one circle, a vector just inside
+     * or outside is detected.
+     */
+    @Test
+    public void testInCircle() {
+        Vector a = new Vector(0.0d, 0.0d), b = new Vector(1.0d, 0.0d), c = new Vector(0.0d, 1.0d);
+        assertEquals(0.0d, Predicates.inCircle(a, b, c, new Vector(1.0d, 1.0d)), 0.0d);
+        double ulp = Math.ulp(1.0d);
+        assertTrue(Predicates.inCircle(a, b, c, new Vector(1.0d, 1.0d - ulp)) > 0);
+        assertTrue(Predicates.inCircle(a, b, c, new Vector(1.0d, 1.0d + ulp * 2)) < 0);
+        assertTrue(Predicates.inCircle(a, c, b, new Vector(0.5d, 0.5d)) < 0);
+    }
+
+    /**
+     * Nearly collinear vectors give a convex hull without reflex or
+     * flat corners.
+     */
+    @Test
+    public void testConvexHull() {
+        List<Vector> vectors = new ArrayList<>();
+        double ulp = Math.ulp(0.5d);
+        for (int i = 0; i < 16; i++) {
+            vectors.add(new Vector(0.5d + i * 0.1d, 0.5d + i * 0.1d + (i % 3 - 1) * ulp));
+        }
+        vectors.add(new Vector(0.0d, 3.0d));
+        List<Vector> hull = new Polygon(vectors).convexHull().getVectors();
+        int n = hull.size();
+        for (int i = 0; i < n; i++) {
+            assertTrue(Predicates.orient(hull.get(i), hull.get((i + 1) % n), hull.get((i + 2) % n)) > 0);
+        }
+        for (Vector v : vectors) {
+            for (int i = 0; i < n; i++) {
+                assertTrue(Predicates.orient(hull.get(i), hull.get((i + 1) % n), v) >= 0);
+            }
+        }
+    }
+}
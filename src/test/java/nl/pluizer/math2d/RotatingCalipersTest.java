@@ -0,0 +1,49 @@
+package nl.pluizer.math2d;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class RotatingCalipersTest {
+
+    /**
+     * A 4 by 1 rectangle rotated by 30 degrees.
+     */
+    private static Polygon rotatedRectangle() {
+        OrientedRectangle rectangle = new OrientedRectangle(
+                new Vector(1.0d, 2.0d), Angle.fromDegree(30), 4.0d, 1.0d);
+        return rectangle.getCorners();
+    }
+
+    @Test
+    public void testMinimumAreaRectangle() {
+        OrientedRectangle box = RotatingCalipers.minimumAreaRectangle(rotatedRectangle());
+        assertEquals(4.0d, box.area(), 1e-9);
+        assertTrue(box.getCentre().equals(new Vector(1.0d, 2.0d)));
+        // Much tighter than the axis aligned bounds.
+        Rectangle bounds = Rectangle.encapsulateVectors(rotatedRectangle().getVectors());
+        assertTrue(bounds.getWidth() * bounds.getHeight() > 8.0d);
+    }
+
+    @Test
+    public void testDiameterAndWidth() {
+        Polygon polygon = rotatedRectangle();
+        assertEquals(Math.sqrt(17.0d), RotatingCalipers.diameter(polygon), 1e-9);
+        assertEquals(1.0d, RotatingCalipers.minimumWidth(polygon), 1e-9);
+    }
+
+    @Test
+    public void testIntersects() {
+        OrientedRectangle a = new OrientedRectangle(new Vector(), Angle.fromDegree(45), 2.0d, 2.0d);
+        OrientedRectangle b = new OrientedRectangle(new Vector(1.5d, 0.0d), Angle.fromDegree(0), 1.0d, 1.0d);
+        OrientedRectangle c = new OrientedRectangle(new Vector(1.0d, 1.0d), Angle.fromDegree(0), 0.5d, 0.5d);
+        assertTrue(a.intersects(b));
+        assertTrue(b.intersects(a));
+        // Overlaps the axis aligned bounds of a, but not a itself.
+        assertTrue(a.bounds().contains(c.getCentre()));
+        assertFalse(a.intersects(c));
+    }
+}
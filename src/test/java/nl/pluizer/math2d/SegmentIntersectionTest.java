@@ -0,0 +1,110 @@
+package nl.pluizer.math2d;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+public class SegmentIntersectionTest {
+
+    private static boolean onSegment(double[] s, int i, double x, double y) {
+        return Math.min(s[i * 4], s[i * 4 + 2]) <= x && x <= Math.max(s[i * 4], s[i * 4 + 2]) &&
+                Math.min(s[i * 4 + 1], s[i * 4 + 3]) <= y && y <= Math.max(s[i * 4 + 1], s[i * 4 + 3]);
+    }
+
+    private static boolean intersect(double[] s, int i, int j) {
+        double o1 = Predicates.orient(s[i * 4], s[i * 4 + 1], s[i * 4 + 2], s[i * 4 + 3], s[j * 4], s[j * 4 + 1]);
+        double o2 = Predicates.orient(s[i * 4], s[i * 4 + 1], s[i * 4 + 2], s[i * 4 + 3], s[j * 4 + 2], s[j * 4 + 3]);
+        double o3 = Predicates.orient(s[j * 4], s[j * 4 + 1], s[j * 4 + 2], s[j * 4 + 3], s[i * 4], s[i * 4 + 1]);
+        double o4 = Predicates.orient(s[j * 4], s[j * 4 + 1], s[j * 4 + 2], s[j * 4 + 3], s[i * 4 + 2], s[i * 4 + 3]);
+        if (o1 * o2 < 0 && o3 * o4 < 0) {
+            return true;
+        }
+        return (o1 == 0 && onSegment(s, i, s[j * 4], s[j * 4 + 1])) ||
+                (o2 == 0 && onSegment(s, i, s[j * 4 + 2], s[j * 4 + 3])) ||
+                (o3 == 0 && onSegment(s, j, s[i * 4], s[i * 4 + 1])) ||
+                (o4 == 0 && onSegment(s, j, s[i * 4 + 2], s[i * 4 + 3]));
+    }
+
+    private static void compare(double[] segments, int n) {
+        Set<Long> expected = new HashSet<>();
+        for (int i = 0; i < n; i++) {
+            for (int j = i + 1; j < n; j++) {
+                if (intersect(segments, i, j)) {
+                    expected.add(((long) i << 32) | j);
+                }
+            }
+        }
+        SegmentIntersection result = new SegmentIntersection(segments, n);
+        Set<Long> actual = new HashSet<>();
+        for (int i = 0; i < result.size(); i++) {
+            actual.add(((long) result.getSegmentA(i) << 32) | result.getSegmentB(i));
+        }
+        assertEquals(expected.size(), result.size());
+        assertEquals(expected, actual);
+        assertEquals(!expected.isEmpty(), SegmentIntersection.intersects(segments, n));
+    }
+
+    /**
+     * Random segments, and segments on a small grid with many shared
+     * endpoints, overlaps and vertical segments, against all pairs.
+     */
+    @Test
+    public void testRandom() {
+        Random random = new Random(7);
+        for (int round = 0; round < 200; round++) {
+            int n = 1 + random.nextInt(60);
+            double[] segments = new double[n * 4];
+            boolean grid = round % 2 == 0;
+            for (int i = 0; i < n * 4; i++) {
+                segments[i] = grid ? random.nextInt(6) : random.nextDouble() * 100;
+            }
+            compare(segments, n);
+        }
+    }
+
+    /**
+     * Crossings get their point, touching and overlapping segments
+     * their first common point.
+     */
+    @Test
+    public void testPoints() {
+        double[] segments = {
+                0, 0, 4, 4,
+                0, 4, 4, 0,
+                4, 4, 6, 4,
+                5, 4, 9, 4,
+                7, 0, 7, 10
+        };
+        SegmentIntersection result = new SegmentIntersection(segments, 5);
+        assertArrayEquals(new int[] {0, 1, 0, 2, 2, 3, 3, 4}, result.getPairs());
+        assertArrayEquals(new double[] {2, 2, 4, 4, 5, 4, 7, 4}, result.getPoints(), 0.0d);
+    }
+
+    /**
+     * Simple polygons, a bow tie, a polygon touching itself in a
+     * vector and one folding back on an edge.
+     */
+    @Test
+    public void testSimple() {
+        assertTrue(new Polygon(Rectangle.fromBounds(0, 0, 1, 1)).isSimple());
+        List<Vector> star = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            double r = i % 2 == 0 ? 10 : 4;
+            star.add(new Vector(r * Math.cos(i * Math.PI / 5), r * Math.sin(i * Math.PI / 5)));
+        }
+        assertTrue(new Polygon(star).isSimple());
+        assertFalse(new Polygon(Arrays.asList(new Vector(0, 0), new Vector(2, 2),
+                new Vector(2, 0), new Vector(0, 2))).isSimple());
+        assertFalse(new Polygon(Arrays.asList(new Vector(0, 0), new Vector(2, 0),
+                new Vector(1, 1), new Vector(2, 2), new Vector(0, 2), new Vector(1, 1))).isSimple());
+        assertFalse(new Polygon(Arrays.asList(new Vector(0, 0), new Vector(2, 0),
+                new Vector(1, 0), new Vector(1, 1))).isSimple());
+    }
+}
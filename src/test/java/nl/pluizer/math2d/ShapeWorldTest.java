@@ -0,0 +1,113 @@
+package nl.pluizer.math2d;
+
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.*;
+
+public class ShapeWorldTest {
+
+    /**
+     * Changes only become visible on publish, and held snapshots keep
+     * their contents.
+     */
+    @Test
+    public void testPublish() {
+        ShapeWorld world = new ShapeWorld(10);
+        world.setRectangle(2, Rectangle.fromBounds(0, 0, 2, 2));
+        world.setCircle(5, new Circle(new Vector(10, 0), 1));
+        ShapeWorld.Snapshot empty = world.acquire();
+        assertEquals(0, empty.size());
+
+        world.publish();
+        ShapeWorld.Snapshot first = world.acquire();
+        assertEquals(1, first.getEpoch());
+        assertTrue(first.isRectangle(2));
+        assertTrue(first.isCircle(5));
+        assertFalse(first.contains(3));
+        assertEquals(11.0d, first.getBounds(5).getRight(), 0.0d);
+
+        world.move(2, 5, 0);
+        world.remove(5);
+        world.publish();
+        world.publish();
+        ShapeWorld.Snapshot third = world.acquire();
+        assertEquals(3, third.getEpoch());
+        assertEquals(3, third.size());
+        assertEquals(5.0d, third.getRectangle(2).getLeft(), 0.0d);
+        // The first snapshot is still held, so it was not recycled.
+        assertEquals(0.0d, first.getRectangle(2).getLeft(), 0.0d);
+        assertTrue(first.isCircle(5));
+        empty.release();
+        first.release();
+        third.release();
+    }
+
+    /**
+     * Circles are queried by their shape, not their bounds.
+     */
+    @Test
+    public void testQuery() {
+        ShapeWorld world = new ShapeWorld(4);
+        world.setRectangle(0, 0, 0, 1, 1);
+        world.setCircle(1, 3, 3, 1);
+        world.setRectangle(3, 5, 5, 6, 6);
+        world.publish();
+        ShapeWorld.Snapshot snapshot = world.acquire();
+        int[] out = new int[1];
+        assertEquals(2, snapshot.query(Rectangle.fromBounds(0.5d, 0.5d, 2.5d, 3.0d), out));
+        assertEquals(0, out[0]);
+        // Inside the bounding box of the circle, outside the circle.
+        assertEquals(0, snapshot.query(2.0d, 3.9d, 2.1d, 4.0d, out));
+        snapshot.release();
+    }
+
+    /**
+     * Readers on other threads only ever see whole ticks.
+     */
+    @Test
+    public void testConcurrentReaders() throws InterruptedException {
+        int bodies = 200;
+        ShapeWorld world = new ShapeWorld(bodies);
+        for (int i = 0; i < bodies; i++) {
+            world.setRectangle(i, i * 2, 0, i * 2 + 1, 1);
+        }
+        world.publish();
+        AtomicBoolean running = new AtomicBoolean(true);
+        AtomicReference<String> failure = new AtomicReference<>();
+        Thread[] readers = new Thread[3];
+        for (int r = 0; r < readers.length; r++) {
+            readers[r] = new Thread(() -> {
+                int[] out = new int[bodies];
+                while (running.get()) {
+                    ShapeWorld.Snapshot snapshot = world.acquire();
+                    // Tick t moved every body t up.
+                    double y = snapshot.getEpoch() - 1;
+                    for (int i = 0; i < bodies; i++) {
+                        if (snapshot.getRectangle(i).getBottom() != y) {
+                            failure.set("Torn snapshot " + snapshot.getEpoch());
+                        }
+                    }
+                    if (snapshot.query(-1, y, bodies * 2, y + 0.5d, out) != bodies) {
+                        failure.set("Wrong query " + snapshot.getEpoch());
+                    }
+                    snapshot.release();
+                }
+            });
+            readers[r].start();
+        }
+        for (int tick = 0; tick < 2000; tick++) {
+            for (int i = 0; i < bodies; i++) {
+                world.move(i, 0, 1);
+            }
+            world.publish();
+        }
+        running.set(false);
+        for (Thread reader : readers) {
+            reader.join();
+        }
+        assertNull(failure.get());
+    }
+}
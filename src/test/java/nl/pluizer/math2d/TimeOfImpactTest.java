@@ -0,0 +1,62 @@
+package nl.pluizer.math2d;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class TimeOfImpactTest {
+
+    /**
+     * A fast circle hits a thin wall it would otherwise jump over, and
+     * touches a corner on its rounded part.
+     */
+    @Test
+    public void testCircleRectangle() {
+        Rectangle wall = Rectangle.fromBounds(4.9d, -10.0d, 5.1d, 10.0d);
+        Circle bullet = new Circle(new Vector(0.0d, 0.0d), 0.5d);
+        assertEquals(0.44d, TimeOfImpact.circleRectangle(bullet, new Vector(10.0d, 0.0d), wall), 1e-12);
+        assertEquals(Double.POSITIVE_INFINITY,
+                TimeOfImpact.circleRectangle(bullet, new Vector(0.0d, 10.0d), wall), 0.0d);
+
+        // Passes the corner at (0, 0) at distance sqrt(0.5) > 0.5.
+        Rectangle box = Rectangle.fromBounds(0.0d, -1.0d, 1.0d, 0.0d);
+        Circle near = new Circle(new Vector(-1.5d, 0.5d), 0.5d);
+        assertEquals(Double.POSITIVE_INFINITY,
+                TimeOfImpact.circleRectangle(near, new Vector(2.0d, 2.0d), box), 0.0d);
+        Circle corner = new Circle(new Vector(-1.0d, 1.0d), 0.5d);
+        double t = TimeOfImpact.circleRectangle(corner, new Vector(2.0d, -2.0d), box);
+        assertEquals(0.5d - 0.25d / Math.sqrt(2.0d), t, 1e-12);
+    }
+
+    /**
+     * Moving rectangles and circles, and the batch variants.
+     */
+    @Test
+    public void testBatch() {
+        Rectangle a = Rectangle.fromBounds(0.0d, 0.0d, 1.0d, 1.0d);
+        Rectangle b = Rectangle.fromBounds(3.0d, 0.0d, 4.0d, 1.0d);
+        assertEquals(0.5d, TimeOfImpact.rectangleRectangle(a, new Vector(2.0d, 0.0d),
+                b, new Vector(-2.0d, 0.0d)), 1e-12);
+        Circle c = new Circle(new Vector(0.0d, 0.0d), 1.0d);
+        Circle d = new Circle(new Vector(4.0d, 0.0d), 1.0d);
+        assertEquals(0.5d, TimeOfImpact.circleCircle(c, new Vector(4.0d, 0.0d),
+                d, new Vector()), 1e-12);
+
+        double[] circles = {0.0d, 0.0d, 0.5d, 0.0d, 5.0d, 0.5d};
+        double[] displacements = {10.0d, 0.0d, 10.0d, 0.0d};
+        double[] walls = {8.0d, -1.0d, 9.0d, 1.0d, 4.9d, -1.0d, 5.1d, 1.0d};
+        double[] times = new double[2];
+        int[] hits = new int[2];
+        TimeOfImpact.circlesRectangles(circles, displacements, 2, walls, 2, times, hits);
+        assertEquals(1, hits[0]);
+        assertEquals(0.44d, times[0], 1e-12);
+        assertEquals(-1, hits[1]);
+        assertEquals(Double.POSITIVE_INFINITY, times[1], 0.0d);
+
+        double[] others = {4.0d, 0.0d, 1.0d};
+        TimeOfImpact.circlesCircles(circles, displacements, 2, others, 1, times, hits);
+        assertEquals(0, hits[0]);
+        assertEquals(0.25d, times[0], 1e-12);
+        assertEquals(-1, hits[1]);
+    }
+}